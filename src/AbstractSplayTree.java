@@ -0,0 +1,851 @@
+/**
+ * Núcleo comum das Splay Trees.
+ *
+ * Contém o splay, a inserção e a remoção estruturais, a reciclagem de
+ * nodos, o cache de chaves mais acessadas e o tempo de vida das entradas.
+ * As subclasses só definem onde o valor fica guardado no nodo
+ * (SplayTree para objetos, LongSplayTree e DoubleSplayTree para valores
+ * primitivos sem boxing), de modo que qualquer melhoria no núcleo vale
+ * para todas as variantes. As variantes oferecem os mesmos métodos; onde
+ * SplayTree retorna null para uma chave ausente, as primitivas recebem um
+ * valor padrão (getOrDefault, getParentOrDefault).
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public abstract class AbstractSplayTree<Key extends Comparable<Key>> {
+
+    // Ordens de caminhamento aceitas por traverse
+    protected static final int PRE = 0;
+    protected static final int POS = 1;
+    protected static final int CENTRAL = 2;
+    protected static final int WIDTH = 3;
+
+    // === Classe Node ===
+    // Parte estrutural do nodo; cada variante acrescenta o campo de valor.
+    protected static class Node<Key> {
+        protected Key key;                // Chave do nodo
+        protected Node<Key> left, right;  // Referências de esquerda e direita do nodo
+        protected long deadline;          // Prazo de validade (0 = não expira)
+        private int heapIndex = -1;       // Posição na fila de prazos (-1 = fora dela)
+    }
+
+    //Raiz da árvore
+    private Node<Key> root;
+
+    //Número de nodos na árvore, incluindo vencidos ainda não recolhidos
+    private int count;
+
+    //Nodo auxiliar usado pelo splay top-down
+    private final Node<Key> header = new Node<>();
+
+    //Lista de nodos livres para reciclagem, encadeada pelo campo right
+    private Node<Key> free;
+    private int freeCount;
+    private final int recycleLimit;
+
+    //Cache opcional das chaves mais acessadas, consultado antes do splay
+    private HotKeyCache<Key, Node<Key>> front;
+
+    //Prazos das entradas com tempo de vida, em ordem de vencimento; cada
+    //nodo com prazo aparece uma única vez
+    private final DeadlineHeap<Key> expiry = new DeadlineHeap<>();
+    //Referência de tempo: prazos são relativos à criação da árvore
+    private final long epoch = System.nanoTime();
+    //Máximo de entradas vencidas recolhidas por operação
+    private int expiryBudget = 2;
+    private long reclaimed;
+
+    /**
+     * Cria uma árvore vazia que guarda até recycleLimit nodos removidos
+     * para reutilizá-los em inserções futuras.
+     *
+     * @param recycleLimit número máximo de nodos livres guardados
+     *                     (0 desativa a reciclagem)
+     */
+    protected AbstractSplayTree(int recycleLimit) {
+        if (recycleLimit < 0) {
+            throw new IllegalArgumentException("recycleLimit deve ser >= 0");
+        }
+        this.recycleLimit = recycleLimit;
+    }
+
+    /**
+     * Cria um nodo vazio do tipo usado pela variante.
+     *
+     * @return o novo nodo
+     */
+    protected abstract Node<Key> createNode();
+
+    /**
+     * Limpa o valor de um nodo que saiu da árvore, para que ele não
+     * retenha objetos. Variantes com valores primitivos não precisam fazer nada.
+     *
+     * @param n nodo removido
+     */
+    protected void clearValue(Node<Key> n) {
+    }
+
+    /***************************************************************************
+     *      Configuração e métricas                                            *
+     ***************************************************************************/
+
+    /**
+     * Ativa um cache das chaves mais acessadas na frente da árvore.
+     * Consultas repetidas a essas chaves são respondidas pelo cache sem
+     * fazer splay, evitando que chaves quentes alternadas fiquem girando
+     * a árvore a cada leitura. O cache guarda os próprios nodos, então
+     * sempre enxerga o valor atual; remove tira a chave do cache.
+     *
+     * @param maxCapacity número máximo de chaves no cache
+     */
+    public void enableHotKeyCache(int maxCapacity) {
+        front = new HotKeyCache<>(maxCapacity);
+    }
+
+    /**
+     * Desativa o cache de chaves mais acessadas.
+     */
+    public void disableHotKeyCache() {
+        front = null;
+    }
+
+    /**
+     * Retorna o cache de chaves mais acessadas, para consulta das métricas.
+     *
+     * @return o cache ou null se ele não estiver ativo
+     */
+    public HotKeyCache<Key, ?> hotKeyCache() {
+        return front;
+    }
+
+    /**
+     * Define quantas entradas vencidas, no máximo, são recolhidas a cada
+     * operação. Valores maiores liberam memória mais rápido, ao custo de
+     * operações individuais mais lentas.
+     *
+     * @param budget máximo de entradas recolhidas por operação (>= 1)
+     */
+    public void setExpiryBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("budget deve ser >= 1");
+        }
+        expiryBudget = budget;
+    }
+
+    /**
+     * Retorna quantas entradas vencidas já foram removidas da árvore.
+     *
+     * @return número de entradas recolhidas
+     */
+    public long expiredReclaimed() {
+        return reclaimed;
+    }
+
+    /**
+     * Retorna quantas entradas com prazo estão na árvore, incluindo as
+     * vencidas que ainda não foram recolhidas. Sobrescrever ou remover
+     * uma entrada atualiza a fila, então o tamanho nunca passa do número
+     * de nodos da árvore.
+     *
+     * @return tamanho da fila de vencimento
+     */
+    public int expiryQueueSize() {
+        return expiry.size();
+    }
+
+    /***************************************************************************
+     *      Operações                                                          *
+     ***************************************************************************/
+
+    /**
+     * Verifica se a chave passada por parâmetro
+     *  existe na árvore.
+     *  Notação O(log n) amortizada
+     *
+     * @param key
+     * @return true se a chave existe ou false se não existir na árvore
+     */
+    public boolean contains(Key key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Verifica se a árvore esta vazia. Entradas vencidas não contam,
+     * assim como em size().
+     * Notação O(k), onde k é o número de entradas vencidas não recolhidas
+     *
+     * @return true se a árvore estiver vazia ou
+     * false se tiver ao menos um elemento.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Método que remove o nodo com chave passada por parâmetro da árvore.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     */
+    public void remove(Key key) {
+        expireSome();
+        delete(key);
+    }
+
+    /**
+     * Procura o nodo da chave, levando-o para a raiz.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @return o nodo ou null se a chave não existir (ou estiver vencida)
+     */
+    protected final Node<Key> find(Key key) {
+        expireSome();
+        if (root == null) return null; // árvore vazia
+
+        if (front != null) {
+            // O cache compara chaves com equals, a árvore com compareTo. A
+            // entrada só vale se o nodo ainda guarda uma chave igual pela
+            // árvore; senão (nodo removido ou reciclado para outra chave,
+            // ou que passou a ter prazo) ela é descartada.
+            int slot = front.find(key);
+            if (slot >= 0) {
+                Node<Key> n = front.entry(slot);
+                if (n.key != null && n.deadline == 0 && key.compareTo(n.key) == 0) return n;
+                front.invalidateSlot(slot);
+            }
+        }
+
+        root = splay(root, key);
+        if (key.compareTo(root.key) != 0) return null;
+
+        if (root.deadline != 0) {
+            if (root.deadline <= now()) { // Vencida: recolhe agora
+                delete(key);
+                reclaimed++;
+                return null;
+            }
+            return root; // Entradas com prazo não vão para o cache
+        }
+        // O cache é indexado pela chave guardada no nodo, a mesma usada
+        // para invalidar em insert e delete
+        if (front != null) front.admit(root.key, root);
+        return root;
+    }
+
+    /**
+     * Garante que a chave exista na árvore e retorna o seu nodo, que fica
+     * na raiz. Cabe à variante gravar o valor no nodo retornado.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param deadline prazo da entrada (0 = não expira), ver deadlineAfter
+     * @return o nodo da chave, novo ou já existente
+     */
+    protected final Node<Key> insert(Key key, long deadline) {
+        expireSome();
+
+        // Se a árvore estiver vazia,
+        // inclui o elemento na raiz
+        if (root == null) {
+            root = newNode(key);
+            count++;
+        } else {
+            root = splay(root, key);
+
+            int cmp = key.compareTo(root.key);
+
+            // Insere o novo nodo sempre na raiz
+            // mas antes verifica se a raiz atual da árvore
+            // é maior ou menor que o novo nodo que está sendo inserido
+            // para decidir de qual a antiga raiz será alocada como filha do novo nodo.
+            if (cmp < 0) {
+                Node<Key> n = newNode(key);
+                n.left = root.left;
+                n.right = root;
+                root.left = null;
+                root = n;
+                count++;
+            } else if (cmp > 0) {
+                Node<Key> n = newNode(key);
+                n.right = root.right;
+                n.left = root;
+                root.right = null;
+                root = n;
+                count++;
+            }
+            // Se for uma chave duplicada, reaproveita o nodo da raiz
+        }
+
+        // Um prazo novo reposiciona a entrada já existente na fila; um put
+        // sem prazo tira a chave da fila
+        root.deadline = deadline;
+        if (deadline != 0) {
+            if (front != null) front.invalidate(root.key);
+            expiry.update(root);
+        } else {
+            expiry.remove(root);
+        }
+        return root;
+    }
+
+    /**
+     * Converte um tempo de vida em prazo para insert. Tempos de vida
+     * grandes demais para nanossegundos em um long saturam em
+     * Long.MAX_VALUE, ou seja, a entrada na prática não vence.
+     *
+     * @param ttlMillis tempo de vida em milissegundos (> 0)
+     * @return o prazo correspondente
+     */
+    protected final long deadlineAfter(long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis deve ser > 0");
+        }
+        long now = now();
+        if (ttlMillis > (Long.MAX_VALUE - now) / 1000000L) {
+            return Long.MAX_VALUE;
+        }
+        return now + ttlMillis * 1000000L;
+    }
+
+    // Remoção propriamente dita, sem recolher entradas vencidas
+    private void delete(Key key) {
+        if (root == null) return; // árvore vazia
+
+        root = splay(root, key);
+
+        int cmp = key.compareTo(root.key);
+
+        if (cmp == 0) {
+            Node<Key> removed = root;
+            if (front != null) front.invalidate(removed.key);
+            if (root.left == null) {
+                root = root.right;
+            } else {
+                Node<Key> x = root.right;
+                root = root.left;
+                root = splay(root, key);
+                root.right = x;
+            }
+            expiry.remove(removed);
+            recycle(removed);
+            count--;
+        }
+
+        // Se compareTo retornar valor != 0, o valor não esta na árvore
+    }
+
+    /**
+     * Recolhe até expiryBudget entradas cujo prazo já venceu, na ordem de
+     * vencimento.
+     */
+    private void expireSome() {
+        if (expiry.isEmpty()) return;
+
+        long now = now();
+        for (int i = 0; i < expiryBudget && !expiry.isEmpty(); i++) {
+            if (expiry.peekDeadline() > now) return;
+            // delete tira o nodo da fila
+            delete(expiry.peek().key);
+            reclaimed++;
+        }
+    }
+
+    // Tempo atual em nanossegundos, relativo à criação da árvore
+    protected final long now() {
+        return System.nanoTime() - epoch;
+    }
+
+    // Verifica se o nodo tem prazo e se ele já venceu
+    protected static boolean expired(Node<?> n, long now) {
+        return n.deadline != 0 && n.deadline <= now;
+    }
+
+    /**
+     * Cria um nodo, reaproveitando um nodo livre quando houver.
+     *
+     * @param key
+     * @return o nodo pronto para ser ligado na árvore
+     */
+    private Node<Key> newNode(Key key) {
+        Node<Key> n;
+        if (free == null) {
+            n = createNode();
+        } else {
+            n = free;
+            free = n.right;
+            freeCount--;
+            n.right = null;
+        }
+        n.key = key;
+        return n;
+    }
+
+    /**
+     * Guarda um nodo removido na lista de nodos livres, se houver espaço.
+     * Todas as referências do nodo são limpas para não reter chaves,
+     * valores ou outros nodos.
+     *
+     * @param n nodo que não faz mais parte da árvore
+     */
+    private void recycle(Node<Key> n) {
+        n.key = null;
+        n.left = null;
+        n.deadline = 0;
+        clearValue(n);
+        if (freeCount < recycleLimit) {
+            n.right = free;
+            free = n;
+            freeCount++;
+        } else {
+            n.right = null;
+        }
+    }
+
+    /**
+     * Método de espelhamento da árvore.
+     * Notação O(log n)
+     *
+     * @param h
+     * @param key
+     * @return o nodo pesquisado
+     */
+    private Node<Key> splay(Node<Key> h, Key key) {
+        if (h == null) return null;
+
+        // Splay top-down iterativo: a profundidade da árvore não é limitada
+        // pela pilha de chamadas, mesmo quando ela degenera em uma lista.
+        Node<Key> l = header, r = header;
+        header.left = header.right = null;
+
+        while (true) {
+            int cmp1 = key.compareTo(h.key);
+
+            if (cmp1 < 0) {
+                //Se o valor não existe na árvore para no nodo atual
+                if (h.left == null) break;
+
+                if (key.compareTo(h.left.key) < 0) {
+                    h = rotateRight(h); // zig-zig
+                    if (h.left == null) break;
+                }
+                // Pendura h na árvore da direita
+                r.left = h;
+                r = h;
+                h = h.left;
+            } else if (cmp1 > 0) {
+                //Se o valor não existe na árvore para no nodo atual
+                if (h.right == null) break;
+
+                if (key.compareTo(h.right.key) > 0) {
+                    h = rotateLeft(h); // zig-zig
+                    if (h.right == null) break;
+                }
+                // Pendura h na árvore da esquerda
+                l.right = h;
+                l = h;
+                h = h.right;
+            } else break;
+        }
+
+        // Remonta: as árvores da esquerda e da direita viram filhas de h
+        l.right = h.left;
+        r.left = h.right;
+        h.left = header.right;
+        h.right = header.left;
+        return h;
+    }
+
+    /**
+     * Método que realiza a rotação dos nodos à direita.
+     * É utilizado pelo metodo Splay.
+     *
+     * Notação O(1)
+     *
+     * @param h
+     * @return o nodo alterado de posição
+     */
+    private Node<Key> rotateRight(Node<Key> h) {
+        Node<Key> x = h.left;
+        h.left = x.right;
+        x.right = h;
+        return x;
+    }
+
+    /**
+     * Método que realiza a rotação dos nodos à esquerda.
+     * É utilizado pelo metodo Splay.
+     *
+     * Notação O(1)
+     *
+     * @param h
+     * @return o nodo alterado de posição
+     */
+    private Node<Key> rotateLeft(Node<Key> h) {
+        Node<Key> x = h.right;
+        h.right = x.left;
+        x.left = h;
+        return x;
+    }
+
+    /***************************************************************************
+     *      Consultas estruturais                                              *
+     ***************************************************************************/
+
+    /**
+     * Retorna o nodo pai do nodo da chave, sem fazer splay.
+     * Notação O(h), onde h é a altura da árvore
+     *
+     * @param key
+     * @return o pai, ou null se a chave for a raiz ou não existir
+     */
+    protected final Node<Key> parentOf(Key key) {
+        Node<Key> parent = null;
+        Node<Key> n = root;
+        while (n != null) {
+            int cmp = key.compareTo(n.key);
+            if (cmp == 0) {
+                return expired(n, now()) ? null : parent;
+            }
+            parent = n;
+            n = cmp < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    /**
+     * Método que verifica se a árvore é balanceada
+     * Notação O(n)
+     *
+     * @return true se a árvore for balanceada ou
+     * false se não for.
+     */
+    public boolean isBalanced() {
+        return heights(true) != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Método que retorna a altura da árvore.
+     * Notação O(n)
+     *
+     * @return height
+     */
+    public int height() {
+        return heights(false);
+    }
+
+    // Calcula a altura em pós-ordem, sem recursão: o splay e as inserções
+    // em ordem de chave podem deixar a árvore muito profunda. Se
+    // checkBalance for true, retorna Integer.MIN_VALUE ao achar um nodo
+    // desbalanceado.
+    private int heights(boolean checkBalance) {
+        if (root == null) return -1;
+        ArrayDeque<Node<Key>> stack = new ArrayDeque<>();
+        int[] hs = new int[64]; // Alturas das subárvores já visitadas
+        int top = 0;
+        Node<Key> n = root;
+        Node<Key> last = null;
+        while (n != null || !stack.isEmpty()) {
+            if (n != null) {
+                stack.push(n);
+                n = n.left;
+            } else {
+                Node<Key> peek = stack.peek();
+                if (peek.right != null && peek.right != last) {
+                    n = peek.right;
+                } else {
+                    int hr = peek.right == null ? -1 : hs[--top];
+                    int hl = peek.left == null ? -1 : hs[--top];
+                    if (checkBalance && Math.abs(hl - hr) >= 2) return Integer.MIN_VALUE;
+                    if (top == hs.length) hs = Arrays.copyOf(hs, top * 2);
+                    hs[top++] = 1 + Math.max(hl, hr);
+                    last = stack.pop();
+                }
+            }
+        }
+        return hs[0];
+    }
+
+    /**
+     * Método que retorna o tamanho da árvore, sem contar entradas vencidas.
+     * Notação O(k), onde k é o número de entradas vencidas não recolhidas
+     *
+     * @return número de entradas visíveis
+     */
+    public int size() {
+        return count - expiry.countExpired(now());
+    }
+
+    /**
+     * Percorre, em ordem crescente de chave, todos os nodos cuja chave
+     * está no intervalo [lo, hi]. Não faz splay, portanto não altera a
+     * forma da árvore.
+     * Notação O(log n + k), onde k é o número de chaves no intervalo
+     *
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param action ação executada para cada nodo
+     */
+    protected final void rangeNodes(Key lo, Key hi, Consumer<Node<Key>> action) {
+        rangeNodes(lo, hi, Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * Igual a rangeNodes(lo, hi, action), mas para depois de entregar
+     * limit nodos.
+     * Notação O(log n + limit)
+     *
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param limit número máximo de nodos entregues
+     * @param action ação executada para cada nodo
+     * @return quantos nodos foram entregues
+     */
+    protected final int rangeNodes(Key lo, Key hi, int limit, Consumer<Node<Key>> action) {
+        // Percurso central iterativo, descendo apenas pelos ramos que
+        // podem conter chaves do intervalo.
+        ArrayDeque<Node<Key>> stack = new ArrayDeque<>();
+        long now = now();
+        int delivered = 0;
+        Node<Key> n = root;
+        while (delivered < limit) {
+            while (n != null) {
+                if (lo.compareTo(n.key) <= 0) {
+                    stack.push(n);
+                    n = n.left;
+                } else {
+                    n = n.right; // Toda a subárvore esquerda é menor que lo
+                }
+            }
+            if (stack.isEmpty()) break; // Nenhuma chave restante >= lo
+            n = stack.pop();
+            if (hi.compareTo(n.key) < 0) break; // Passou do fim do intervalo
+            if (!expired(n, now)) {
+                action.accept(n);
+                delivered++;
+            }
+            n = n.right;
+        }
+        return delivered;
+    }
+
+    /***************************************************************************
+     *      Métodos de caminhamento                                            *
+     ***************************************************************************/
+
+    /**
+     * Visita todos os nodos não vencidos na ordem indicada.
+     * Notação O(n)
+     *
+     * @param order PRE, POS, CENTRAL ou WIDTH
+     * @param visit ação executada para cada nodo
+     */
+    protected final void traverse(int order, Consumer<Node<Key>> visit) {
+        // Todos os caminhamentos são iterativos, com pilha explícita, pois a
+        // altura da árvore pode chegar a n
+        long now = now();
+        switch (order) {
+            case PRE:
+                positionsPreAux(visit, now);
+                break;
+            case POS:
+                positionsPosAux(visit, now);
+                break;
+            case CENTRAL:
+                positionsCentralAux(visit, now);
+                break;
+            case WIDTH:
+                positionsWidthAux(visit, now);
+                break;
+            default:
+                throw new IllegalArgumentException("Ordem de caminhamento inválida");
+        }
+    }
+
+    private void positionsPreAux(Consumer<Node<Key>> visit, long now) {
+        ArrayDeque<Node<Key>> stack = new ArrayDeque<>();
+        if (root != null) stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<Key> n = stack.pop();
+            if (!expired(n, now)) visit.accept(n); //Visita o nodo
+            // A direita entra antes para a esquerda sair primeiro
+            if (n.right != null) stack.push(n.right);
+            if (n.left != null) stack.push(n.left);
+        }
+    }
+
+    private void positionsPosAux(Consumer<Node<Key>> visit, long now) {
+        ArrayDeque<Node<Key>> stack = new ArrayDeque<>();
+        Node<Key> n = root;
+        Node<Key> last = null;
+        while (n != null || !stack.isEmpty()) {
+            if (n != null) {
+                stack.push(n);
+                n = n.left; //Desce pela subarvore esquerda
+            } else {
+                Node<Key> peek = stack.peek();
+                if (peek.right != null && peek.right != last) {
+                    n = peek.right; //Visita a subarvore direita
+                } else {
+                    if (!expired(peek, now)) visit.accept(peek); //Visita o nodo
+                    last = stack.pop();
+                }
+            }
+        }
+    }
+
+    private void positionsCentralAux(Consumer<Node<Key>> visit, long now) {
+        ArrayDeque<Node<Key>> stack = new ArrayDeque<>();
+        Node<Key> n = root;
+        while (n != null || !stack.isEmpty()) {
+            while (n != null) {
+                stack.push(n);
+                n = n.left; //Desce pela subarvore esquerda
+            }
+            n = stack.pop();
+            if (!expired(n, now)) visit.accept(n); //Visita o nodo
+            n = n.right; //Visita a subarvore direita
+        }
+    }
+
+    private void positionsWidthAux(Consumer<Node<Key>> visit, long now) {
+        Queue<Node<Key>> fila = new Queue<>();
+        if (root != null) fila.enqueue(root);
+        while (!fila.isEmpty()) {
+            Node<Key> n = fila.dequeue();
+
+            // Incluir os nodos filhos na fila
+            if (n.right != null) {
+                fila.enqueue(n.right);
+            }
+
+            if (n.left != null) {
+                fila.enqueue(n.left);
+            }
+
+            //Visita o nodo
+            if (!expired(n, now)) visit.accept(n);
+        }
+    }
+
+    // === Fila de prioridade dos prazos (heap mínimo em vetores) ===
+    // Cada nodo guarda a sua posição no heap (heapIndex), o que permite
+    // reposicionar ou retirar um prazo em O(log n) quando a entrada é
+    // sobrescrita ou removida.
+    private static class DeadlineHeap<Key> {
+        private long[] deadlines = new long[16];
+        private Object[] nodes = new Object[16];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public long peekDeadline() {
+            return deadlines[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        public Node<Key> peek() {
+            return (Node<Key>) nodes[0];
+        }
+
+        // Insere o nodo ou reposiciona o seu prazo atual (n.deadline)
+        public void update(Node<Key> n) {
+            int i = n.heapIndex;
+            if (i < 0) {
+                if (size == deadlines.length) {
+                    deadlines = Arrays.copyOf(deadlines, size * 2);
+                    nodes = Arrays.copyOf(nodes, size * 2);
+                }
+                i = size++;
+            } else if (n.deadline > deadlines[i]) {
+                siftDown(i, n.deadline, n);
+                return;
+            }
+            siftUp(i, n.deadline, n);
+        }
+
+        // Retira o nodo da fila, se ele estiver nela
+        @SuppressWarnings("unchecked")
+        public void remove(Node<Key> n) {
+            int i = n.heapIndex;
+            if (i < 0) return;
+            n.heapIndex = -1;
+            size--;
+            long deadline = deadlines[size];
+            Node<Key> last = (Node<Key>) nodes[size];
+            nodes[size] = null;
+            if (i == size) return;
+            // O último ocupa a vaga e sobe ou desce até a posição correta
+            if (i > 0 && deadline < deadlines[(i - 1) >>> 1]) {
+                siftUp(i, deadline, last);
+            } else {
+                siftDown(i, deadline, last);
+            }
+        }
+
+        // Conta os prazos <= now sem visitar os demais: num heap mínimo,
+        // se um prazo não venceu, nenhum abaixo dele venceu
+        public int countExpired(long now) {
+            if (size == 0 || deadlines[0] > now) return 0;
+            int[] stack = new int[64]; // Profundidade do heap <= 31
+            int top = 0;
+            int expired = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int i = stack[--top];
+                expired++;
+                int child = 2 * i + 1;
+                if (child < size && deadlines[child] <= now) stack[top++] = child;
+                if (child + 1 < size && deadlines[child + 1] <= now) stack[top++] = child + 1;
+            }
+            return expired;
+        }
+
+        private void siftUp(int i, long deadline, Node<Key> n) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (deadlines[parent] <= deadline) break;
+                move(parent, i);
+                i = parent;
+            }
+            place(i, deadline, n);
+        }
+
+        private void siftDown(int i, long deadline, Node<Key> n) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && deadlines[child + 1] < deadlines[child]) child++;
+                if (deadline <= deadlines[child]) break;
+                move(child, i);
+                i = child;
+            }
+            place(i, deadline, n);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void move(int from, int to) {
+            deadlines[to] = deadlines[from];
+            nodes[to] = nodes[from];
+            ((Node<Key>) nodes[to]).heapIndex = to;
+        }
+
+        private void place(int i, long deadline, Node<Key> n) {
+            deadlines[i] = deadline;
+            nodes[i] = n;
+            n.heapIndex = i;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Chave normalizada em bytes, para árvores indexadas por strings.
+ *
+ * A string é guardada em UTF-8 e os 8 primeiros bytes ficam também em um
+ * long (big-endian, completado com zeros). Assim, a maior parte das
+ * comparações do splay é uma única comparação de long sem sinal; o vetor
+ * de bytes só é percorrido quando os prefixos empatam.
+ *
+ * A ordem é a ordem lexicográfica sem sinal dos bytes UTF-8, que é a
+ * ordem dos code points Unicode. Ela só difere de String.compareTo para
+ * caracteres fora do plano básico comparados com U+E000..U+FFFF.
+ *
+ * Uso: SplayTree<ByteKey, Integer> st; st.put(ByteKey.of("/a/b"), 1);
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public final class ByteKey implements Comparable<ByteKey> {
+
+    private final byte[] bytes;  // Chave normalizada
+    private final long prefix;   // 8 primeiros bytes da chave
+    private final int hash;
+
+    private ByteKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.prefix = prefix(bytes);
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Cria a chave a partir de uma string.
+     *
+     * @param s
+     * @return a chave normalizada
+     */
+    public static ByteKey of(String s) {
+        return new ByteKey(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cria a chave a partir de bytes já normalizados. O vetor é copiado.
+     *
+     * @param bytes
+     * @return a chave
+     */
+    public static ByteKey of(byte[] bytes) {
+        return new ByteKey(bytes.clone());
+    }
+
+    /**
+     * Retorna o tamanho da chave em bytes.
+     *
+     * @return número de bytes
+     */
+    public int length() {
+        return bytes.length;
+    }
+
+    @Override
+    public int compareTo(ByteKey o) {
+        if (prefix != o.prefix) {
+            return Long.compareUnsigned(prefix, o.prefix);
+        }
+        // Empate no prefixo: compara os vetores inteiros (o JDK usa uma
+        // busca vetorizada pela primeira diferença)
+        return Arrays.compareUnsigned(bytes, o.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ByteKey)) return false;
+        ByteKey k = (ByteKey) o;
+        return hash == k.hash && prefix == k.prefix && Arrays.equals(bytes, k.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long prefix(byte[] b) {
+        long p = 0;
+        int n = Math.min(8, b.length);
+        for (int i = 0; i < n; i++) {
+            p |= (b[i] & 0xFFL) << (56 - 8 * i);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Random;
+
+/**
+ * Compara buscas em uma SplayTree indexada por String com a mesma árvore
+ * indexada por ByteKey, para chaves curtas e para chaves longas com
+ * prefixo comum (URLs).
+ *
+ * Uso: java ByteKeyBenchmark [tamanho] [buscas]
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class ByteKeyBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+
+        // Duas rodadas: a primeira serve de aquecimento para o JIT
+        for (int round = 0; round < 2; round++) {
+            String[] shortKeys = keys(size, "");
+            run("chaves curtas", shortKeys, lookups);
+            String[] urls = keys(size, "https://www.example.com/static/assets/images/");
+            run("URLs com prefixo comum", urls, lookups);
+        }
+    }
+
+    private static String[] keys(int n, String base) {
+        Random rnd = new Random(42);
+        String[] res = new String[n];
+        for (int i = 0; i < n; i++) {
+            res[i] = base + Long.toHexString(rnd.nextLong());
+        }
+        return res;
+    }
+
+    private static void run(String name, String[] keys, int lookups) {
+        SplayTree<String, Integer> st = new SplayTree<String, Integer>();
+        SplayTree<ByteKey, Integer> bt = new SplayTree<ByteKey, Integer>();
+        ByteKey[] bkeys = new ByteKey[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            bkeys[i] = ByteKey.of(keys[i]);
+            st.put(keys[i], i);
+            bt.put(bkeys[i], i);
+        }
+
+        Random rnd = new Random(7);
+        long sum = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sum += st.get(keys[rnd.nextInt(keys.length)]);
+        }
+        long tString = System.nanoTime() - t0;
+
+        rnd = new Random(7);
+        t0 = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sum -= bt.get(bkeys[rnd.nextInt(keys.length)]);
+        }
+        long tBytes = System.nanoTime() - t0;
+
+        System.out.printf("%-24s String %7.1f ns/get  ByteKey %7.1f ns/get  (%d)%n",
+                name, (double) tString / lookups, (double) tBytes / lookups, sum);
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Splay Tree com valores double, sem boxing.
+ *
+ * Usa o mesmo núcleo de AbstractSplayTree que SplayTree; só o campo de
+ * valor do nodo é primitivo. Indicada para pontuações.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+
+import java.util.Arrays;
+import java.util.function.ObjDoubleConsumer;
+
+public class DoubleSplayTree<Key extends Comparable<Key>> extends AbstractSplayTree<Key> {
+
+    // === Classe Node ===
+    private static class DoubleNode<Key> extends Node<Key> {
+        private double value;       // Valor
+    }
+
+    /**
+     * Cria uma árvore vazia, sem reciclagem de nodos.
+     */
+    public DoubleSplayTree() {
+        this(0);
+    }
+
+    /**
+     * Cria uma árvore vazia que guarda até recycleLimit nodos removidos
+     * para reutilizá-los em inserções futuras.
+     *
+     * @param recycleLimit número máximo de nodos livres guardados
+     *                     (0 desativa a reciclagem)
+     */
+    public DoubleSplayTree(int recycleLimit) {
+        super(recycleLimit);
+    }
+
+    @Override
+    protected Node<Key> createNode() {
+        return new DoubleNode<Key>();
+    }
+
+    private static <Key> DoubleNode<Key> doubleNode(Node<Key> n) {
+        return (DoubleNode<Key>) n;
+    }
+
+    /**
+     * Pega o valor da chave ou defaultValue se ela não existir.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param defaultValue valor retornado se a chave não existir
+     * @return o valor da chave ou defaultValue
+     */
+    public double getOrDefault(Key key, double defaultValue) {
+        Node<Key> n = find(key);
+        return n == null ? defaultValue : doubleNode(n).value;
+    }
+
+    /**
+     * Insere ou substitui o valor da chave.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param value
+     */
+    public void put(Key key, double value) {
+        doubleNode(insert(key, 0)).value = value;
+    }
+
+    /**
+     * Insere um valor que deixa de existir após ttlMillis milissegundos.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param value
+     * @param ttlMillis tempo de vida em milissegundos (> 0)
+     */
+    public void put(Key key, double value, long ttlMillis) {
+        doubleNode(insert(key, deadlineAfter(ttlMillis))).value = value;
+    }
+
+    /**
+     * Soma delta ao valor da chave; se ela existe, basta um splay. Uma
+     * chave ausente é criada com valor delta.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param delta valor a somar
+     * @return o novo valor da chave
+     */
+    public double addTo(Key key, double delta) {
+        Node<Key> n = find(key);
+        if (n == null) {
+            n = insert(key, 0);
+            doubleNode(n).value = 0;
+        }
+        return doubleNode(n).value += delta;
+    }
+
+    /**
+     * Retorna o valor do pai do nodo da chave. Não faz splay.
+     * Notação O(h), onde h é a altura da árvore
+     *
+     * @param key
+     * @param defaultValue valor retornado se a chave for a raiz ou não existir
+     * @return valor do pai ou defaultValue
+     */
+    public double getParentOrDefault(Key key, double defaultValue) {
+        Node<Key> parent = parentOf(key);
+        return parent == null ? defaultValue : doubleNode(parent).value;
+    }
+
+    /**
+     * Percorre, em ordem crescente de chave, os pares cuja chave está em
+     * [lo, hi]. Não faz splay.
+     * Notação O(log n + k), onde k é o número de chaves no intervalo
+     *
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param action ação executada para cada par chave/valor
+     */
+    public void range(Key lo, Key hi, ObjDoubleConsumer<? super Key> action) {
+        rangeNodes(lo, hi, n -> action.accept(n.key, doubleNode(n).value));
+    }
+
+    /**
+     * Igual a range(lo, hi, action), mas entrega no máximo limit pares.
+     * Notação O(log n + limit)
+     *
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param limit número máximo de pares entregues
+     * @param action ação executada para cada par chave/valor
+     * @return quantos pares foram entregues
+     */
+    public int range(Key lo, Key hi, int limit, ObjDoubleConsumer<? super Key> action) {
+        return rangeNodes(lo, hi, limit, n -> action.accept(n.key, doubleNode(n).value));
+    }
+
+
+    /***************************************************************************
+     *      Métodos de caminhamento                                            *
+     ***************************************************************************/
+
+    /**
+     * Caminhamento pré-fixado
+     * Notação O(n)
+     *
+     * @return vetor com os valores da árvore
+     */
+    public double[] positionsPre() {
+        return positions(PRE);
+    }
+
+    /**
+     * Caminhamento pós-fixado
+     * Notação O(n)
+     *
+     * @return vetor com os valores da árvore
+     */
+    public double[] positionsPos() {
+        return positions(POS);
+    }
+
+    /**
+     * Caminhamento central: valores em ordem crescente de chave.
+     * Notação O(n)
+     *
+     * @return vetor com os valores da árvore
+     */
+    public double[] positionsCentral() {
+        return positions(CENTRAL);
+    }
+
+    /**
+     * Caminhamento em largura.
+     * Notação O(n)
+     *
+     * @return vetor com os valores da árvore
+     */
+    public double[] positionsWidth() {
+        return positions(WIDTH);
+    }
+
+    private double[] positions(int order) {
+        double[] res = new double[size()];
+        int[] i = {0};
+        traverse(order, n -> res[i[0]++] = doubleNode(n).value);
+        // Alguma entrada pode ter vencido entre size() e o caminhamento
+        return i[0] == res.length ? res : Arrays.copyOf(res, i[0]);
+    }
+}
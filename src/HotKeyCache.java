@@ -0,0 +1,248 @@
+/**
+ * Pequena tabela hash de endereçamento aberto que fica na frente da
+ * SplayTree e responde às chaves mais acessadas sem fazer splay.
+ *
+ * Chaves, hashes, entradas e contadores de acesso ficam em vetores
+ * paralelos, sem um objeto extra por entrada. A entrada guardada é o
+ * próprio nodo da árvore, assim o cache vale para qualquer tipo de valor
+ * e uma alteração do valor no nodo é vista imediatamente. Cada chave só pode ocupar um de
+ * PROBES slots consecutivos; quando todos estão ocupados, sai a entrada
+ * com menos acessos. A capacidade é ajustada a cada janela de WINDOW
+ * consultas de acordo com a taxa de acerto observada.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class HotKeyCache<Key, E> {
+
+    private static final int PROBES = 4;          // Slots examinados por chave
+    private static final int WINDOW = 4096;       // Consultas por janela de ajuste
+    private static final int MIN_CAPACITY = 16;
+    private static final double MIN_HIT_RATIO = 0.05;
+
+    private final int maxCapacity;
+
+    private Object[] keys;
+    private int[] hashes;
+    private Object[] entries;
+    private int[] freq;
+    private int mask;
+
+    // === Métricas ===
+    private long lookups, hits, evictions;
+    private int windowLookups, windowHits, windowEvictions;
+
+    /**
+     * Cria o cache com a capacidade mínima, podendo crescer até maxCapacity.
+     *
+     * @param maxCapacity número máximo de chaves guardadas
+     */
+    public HotKeyCache(int maxCapacity) {
+        if (maxCapacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException("maxCapacity deve ser >= " + MIN_CAPACITY);
+        }
+        this.maxCapacity = Integer.highestOneBit(maxCapacity);
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Procura a chave no cache.
+     *
+     * @param key
+     * @return o slot da chave ou -1 se ela não estiver no cache
+     */
+    public int find(Key key) {
+        // O ajuste pode realocar os vetores, então é feito antes da busca
+        // para que o slot devolvido continue válido
+        if (windowLookups == WINDOW) {
+            adapt();
+        }
+
+        int h = hash(key);
+        int slot = -1;
+        for (int i = 0, s = h & mask; i < PROBES; i++, s = (s + 1) & mask) {
+            if (hashes[s] == h && key.equals(keys[s])) {
+                if (freq[s] < Integer.MAX_VALUE) freq[s]++;
+                slot = s;
+                break;
+            }
+        }
+
+        lookups++;
+        windowLookups++;
+        if (slot >= 0) {
+            hits++;
+            windowHits++;
+        }
+        return slot;
+    }
+
+    /**
+     * Retorna a entrada guardada no slot devolvido por find.
+     *
+     * @param slot
+     * @return a entrada
+     */
+    @SuppressWarnings("unchecked")
+    public E entry(int slot) {
+        return (E) entries[slot];
+    }
+
+    /**
+     * Coloca no cache uma chave encontrada na árvore, substituindo, se
+     * necessário, a entrada menos acessada da sua vizinhança. Se a chave
+     * já estiver no cache, só a entrada é trocada.
+     *
+     * @param key
+     * @param entry
+     */
+    public void admit(Key key, E entry) {
+        int h = hash(key);
+        int s = slotOf(key, h);
+        if (s >= 0) {
+            entries[s] = entry;
+            return;
+        }
+        if (place(key, h, entry, 1)) {
+            evictions++;
+            windowEvictions++;
+        }
+    }
+
+    /**
+     * Tira a chave do cache, se ela estiver nele.
+     *
+     * @param key
+     */
+    public void invalidate(Key key) {
+        int s = slotOf(key, hash(key));
+        if (s >= 0) {
+            store(s, null, 0, null, 0);
+        }
+    }
+
+    /**
+     * Tira do cache a entrada do slot devolvido por find.
+     *
+     * @param slot
+     */
+    public void invalidateSlot(int slot) {
+        store(slot, null, 0, null, 0);
+    }
+
+    /**
+     * Esvazia o cache, mantendo a capacidade atual.
+     */
+    public void clear() {
+        allocate(keys.length);
+    }
+
+    /**
+     * Retorna a capacidade atual do cache.
+     *
+     * @return capacidade
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Retorna a fração das consultas respondidas pelo cache.
+     *
+     * @return taxa de acerto acumulada, entre 0 e 1
+     */
+    public double hitRatio() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Retorna o número de entradas substituídas por outras.
+     *
+     * @return número de despejos
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    // Procura a chave sem contar como acesso
+    private int slotOf(Key key, int h) {
+        for (int i = 0, s = h & mask; i < PROBES; i++, s = (s + 1) & mask) {
+            if (hashes[s] == h && key.equals(keys[s])) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    // Coloca a chave em um slot livre ou no menos acessado da vizinhança;
+    // retorna true se outra entrada foi despejada
+    private boolean place(Key key, int h, Object entry, int f) {
+        int victim = -1;
+        for (int i = 0, s = h & mask; i < PROBES; i++, s = (s + 1) & mask) {
+            if (keys[s] == null) {
+                store(s, key, h, entry, f);
+                return false;
+            }
+            if (victim < 0 || freq[s] < freq[victim]) {
+                victim = s;
+            }
+        }
+        store(victim, key, h, entry, f);
+        return true;
+    }
+
+    private void store(int s, Key key, int h, Object entry, int f) {
+        keys[s] = key;
+        hashes[s] = h;
+        entries[s] = entry;
+        freq[s] = f;
+    }
+
+    // Ajusta a capacidade ao final de cada janela de consultas: encolhe
+    // quando o cache quase não acerta (cada consulta seria custo puro) e
+    // cresce quando ele acerta, mas está despejando entradas úteis.
+    private void adapt() {
+        double ratio = (double) windowHits / windowLookups;
+        int capacity = keys.length;
+        if (ratio < MIN_HIT_RATIO && capacity > MIN_CAPACITY) {
+            resize(capacity / 2);
+        } else if (ratio >= MIN_HIT_RATIO && windowEvictions > capacity / 4
+                && capacity < maxCapacity) {
+            resize(capacity * 2);
+        } else {
+            // Envelhece os contadores para que chaves que esfriaram possam sair
+            for (int s = 0; s < capacity; s++) {
+                freq[s] >>>= 1;
+            }
+        }
+        windowLookups = 0;
+        windowHits = 0;
+        windowEvictions = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldEntries = entries;
+        int[] oldHashes = hashes;
+        int[] oldFreq = freq;
+        allocate(capacity);
+        for (int s = 0; s < oldKeys.length; s++) {
+            if (oldKeys[s] != null) {
+                place((Key) oldKeys[s], oldHashes[s], oldEntries[s], oldFreq[s] >>> 1);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        entries = new Object[capacity];
+        freq = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
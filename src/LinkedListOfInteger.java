@@ -20,14 +20,57 @@ public class LinkedListOfInteger {
     private Node tail;
     // Contador para a quantidade de elementos que a lista contem.
     private int count;
+    // Lista de nodos livres para reutilizacao, encadeada pelo campo next.
+    private Node free;
+    private int freeCount;
+    // Quantidade maxima de nodos removidos guardados para reutilizacao.
+    private final int recycleLimit;
 
     /**
      * Construtor da lista
      */
     public LinkedListOfInteger() {
+        this(0);
+    }
+
+    /**
+     * Construtor da lista que guarda ate recycleLimit nodos removidos por
+     * remove ou removeByIndex para reutiliza-los nas proximas insercoes.
+     * @param recycleLimit numero maximo de nodos livres (0 desativa)
+     */
+    public LinkedListOfInteger(int recycleLimit) {
+        if (recycleLimit < 0) {
+            throw new IllegalArgumentException();
+        }
         head = null;
         tail = null;
         count = 0;
+        this.recycleLimit = recycleLimit;
+    }
+
+    // Cria um nodo, reaproveitando um nodo livre quando houver.
+    private Node newNode(Integer element) {
+        if (free == null) {
+            return new Node(element);
+        }
+        Node n = free;
+        free = n.next;
+        freeCount--;
+        n.element = element;
+        n.next = null;
+        return n;
+    }
+
+    // Guarda o nodo removido para reutilizacao, se houver espaco.
+    private void recycle(Node n) {
+        n.element = null;
+        if (freeCount < recycleLimit) {
+            n.next = free;
+            free = n;
+            freeCount++;
+        } else {
+            n.next = null;
+        }
     }
 
     /**
@@ -35,7 +78,7 @@ public class LinkedListOfInteger {
      * @param element elemento a ser adicionado ao final da lista
      */
     public void add(Integer element) {
-        Node aux = new Node(element);
+        Node aux = newNode(element);
         if (head == null) {
             head = aux;
         } else {
@@ -56,7 +99,7 @@ public class LinkedListOfInteger {
             throw new IndexOutOfBoundsException();
         }
 
-        Node n = new Node(element);
+        Node n = newNode(element);
         if (index == 0) { //insere no inicio
             n.next = head;
             head = n;
@@ -132,11 +175,13 @@ public class LinkedListOfInteger {
         }
 
         if (head.element.equals(element)) { // remocao do primeiro
+            Node removed = head;
             head = head.next;
             if (count == 1) { // se havia so um elemento na lista
                 tail = null;
             }
             count--;
+            recycle(removed);
             return true;
         }
 
@@ -152,6 +197,7 @@ public class LinkedListOfInteger {
                     ant.next = aux.next;
                 }
                 count--;
+                recycle(aux);
                 return true;
             }
             ant = ant.next;
@@ -186,6 +232,23 @@ public class LinkedListOfInteger {
         count = 0;
     }
 
+    /**
+     * Esvazia a lista, guardando seus nodos para serem reutilizados pelas
+     * proximas insercoes, ate o limite de recycleLimit nodos livres; os
+     * demais sao descartados. As referencias para os elementos sao limpas.
+     */
+    public void reset() {
+        Node aux = head;
+        while (aux != null) {
+            Node next = aux.next;
+            recycle(aux);
+            aux = next;
+        }
+        head = null;
+        tail = null;
+        count = 0;
+    }
+
     /**
      * Remove o elemento de uma determinada posicao da lista
      * @param index a posicao da lista
@@ -205,19 +268,23 @@ public class LinkedListOfInteger {
             }
             head = head.next;
             count--;
-            return aux.element;
+            Integer element = aux.element;
+            recycle(aux);
+            return element;
         }
         int c = 0;
         while (c < index - 1) {
             aux = aux.next;
             c++;
         }
-        Integer element = aux.next.element;
-        if (tail == aux.next) {
+        Node removed = aux.next;
+        Integer element = removed.element;
+        if (tail == removed) {
             tail = aux;
         }
-        aux.next = aux.next.next;
+        aux.next = removed.next;
         count--;
+        recycle(removed);
         return element;
     }
 
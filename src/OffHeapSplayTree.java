@@ -0,0 +1,654 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Splay Tree de chaves e valores inteiros guardada fora do heap.
+ *
+ * Cada nodo é um registro de tamanho fixo (chave, valor, esquerda, direita)
+ * dentro de blocos de ByteBuffer diretos, e os filhos são referenciados
+ * pelo índice do registro. Assim o heap guarda apenas a própria árvore e
+ * o vetor de blocos, qualquer que seja o número de elementos. Registros
+ * removidos vão para uma lista de livres e novos blocos são criados sob
+ * demanda. Opcionalmente os blocos são mapeados de um arquivo.
+ *
+ * Os métodos seguem os de SplayTree<Integer, Integer>: get retorna null
+ * para uma chave ausente e os caminhamentos retornam List<Integer>.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class OffHeapSplayTree implements AutoCloseable {
+
+    // === Layout do registro ===
+    private static final int RECORD_SIZE = 16;
+    private static final int KEY = 0;
+    private static final int VALUE = 4;
+    private static final int LEFT = 8;
+    private static final int RIGHT = 12;
+
+    private static final int NIL = -1;       // Referência nula
+    private static final int HEADER = 0;     // Registro auxiliar do splay top-down
+    private static final int DEFAULT_CHUNK_RECORDS = 1 << 18;
+    // Maior bloco cujo tamanho em bytes ainda cabe em um int
+    private static final int MAX_CHUNK_RECORDS = Integer.highestOneBit(Integer.MAX_VALUE / RECORD_SIZE);
+
+    private final int shift;                 // log2 de registros por bloco
+    private final int mask;
+    private final FileChannel file;          // null se os blocos não vêm de arquivo
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+
+    private int root = NIL;
+    private int free = NIL;                  // Lista de livres, encadeada por LEFT
+    private int next;                        // Próximo registro nunca usado
+    private int count;
+
+    /**
+     * Cria uma árvore vazia em memória direta.
+     */
+    public OffHeapSplayTree() {
+        this(DEFAULT_CHUNK_RECORDS);
+    }
+
+    /**
+     * Cria uma árvore vazia em memória direta.
+     *
+     * @param chunkRecords registros por bloco (potência de 2, até 2^26)
+     */
+    public OffHeapSplayTree(int chunkRecords) {
+        this((FileChannel) null, chunkRecords);
+    }
+
+    /**
+     * Cria uma árvore vazia cujos blocos são mapeados do arquivo indicado.
+     * O conteúdo anterior do arquivo é descartado.
+     *
+     * @param path arquivo que guarda os registros
+     * @param chunkRecords registros por bloco (potência de 2, até 2^26)
+     * @throws IOException se não for possível abrir o arquivo
+     */
+    public OffHeapSplayTree(Path path, int chunkRecords) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), chunkRecords);
+    }
+
+    private OffHeapSplayTree(FileChannel file, int chunkRecords) {
+        if (chunkRecords < 2 || Integer.bitCount(chunkRecords) != 1) {
+            throw new IllegalArgumentException("chunkRecords deve ser potência de 2");
+        }
+        if (chunkRecords > MAX_CHUNK_RECORDS) {
+            throw new IllegalArgumentException("chunkRecords deve ser no máximo " + MAX_CHUNK_RECORDS);
+        }
+        this.file = file;
+        this.shift = Integer.numberOfTrailingZeros(chunkRecords);
+        this.mask = chunkRecords - 1;
+        next = HEADER + 1;
+        addChunk();
+    }
+
+    /**
+     * Verifica se a chave passada por parâmetro existe na árvore.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @return true se a chave existe ou false se não existir na árvore
+     */
+    public boolean contains(int key) {
+        if (root == NIL) return false;
+        root = splay(root, key);
+        return key(root) == key;
+    }
+
+    /**
+     * Verifica se a árvore esta vazia.
+     * Notação O(1)
+     *
+     * @return true se a árvore estiver vazia
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * Pega um valor através da chave passada por parâmetro.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @return o valor associado à chave ou null se a chave não existir
+     */
+    public Integer get(int key) {
+        if (root == NIL) return null;
+        root = splay(root, key);
+        return key(root) == key ? value(root) : null;
+    }
+
+    /**
+     * Pega o valor da chave ou defaultValue se ela não existir, sem boxing.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param defaultValue valor retornado se a chave não existir
+     * @return o valor da chave ou defaultValue
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (root == NIL) return defaultValue;
+        root = splay(root, key);
+        return key(root) == key ? value(root) : defaultValue;
+    }
+
+    /**
+     * Retorna o valor do pai do nodo da chave. Não faz splay.
+     * Notação O(h), onde h é a altura da árvore
+     *
+     * @param key
+     * @return valor do pai, ou null se a chave for a raiz ou não existir
+     */
+    public Integer getParent(int key) {
+        int parent = NIL;
+        int n = root;
+        while (n != NIL) {
+            int k = key(n);
+            if (key == k) {
+                return parent == NIL ? null : value(parent);
+            }
+            parent = n;
+            n = key < k ? left(n) : right(n);
+        }
+        return null;
+    }
+
+    /**
+     * Remove o nodo com a chave passada por parâmetro.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     */
+    public void remove(int key) {
+        if (root == NIL) return;
+
+        root = splay(root, key);
+        if (key(root) != key) return; // A chave não esta na árvore
+
+        int removed = root;
+        if (left(root) == NIL) {
+            root = right(root);
+        } else {
+            int x = right(root);
+            root = splay(left(root), key);
+            setRight(root, x);
+        }
+        release(removed);
+        count--;
+    }
+
+    /**
+     * Insere um par chave/valor, substituindo o valor se a chave já existir.
+     * Notação O(log n) amortizada
+     *
+     * @param key
+     * @param value
+     */
+    public void put(int key, int value) {
+        if (root == NIL) {
+            root = allocate(key, value);
+            count++;
+            return;
+        }
+
+        root = splay(root, key);
+        int rootKey = key(root);
+
+        if (key < rootKey) {
+            int n = allocate(key, value);
+            setLeft(n, left(root));
+            setRight(n, root);
+            setLeft(root, NIL);
+            root = n;
+            count++;
+        } else if (key > rootKey) {
+            int n = allocate(key, value);
+            setRight(n, right(root));
+            setLeft(n, root);
+            setRight(root, NIL);
+            root = n;
+            count++;
+        } else {
+            setValue(root, value);
+        }
+    }
+
+    /**
+     * Retorna o número de elementos da árvore.
+     * Notação O(1)
+     *
+     * @return tamanho
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Retorna a altura da árvore.
+     * Notação O(n)
+     *
+     * @return altura, ou -1 se a árvore estiver vazia
+     */
+    public int height() {
+        return heights(false);
+    }
+
+    /**
+     * Verifica se a árvore é balanceada.
+     * Notação O(n)
+     *
+     * @return true se a árvore for balanceada
+     */
+    public boolean isBalanced() {
+        return heights(true) != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Percorre, em ordem crescente de chave, os pares cuja chave está em
+     * [lo, hi]. Não faz splay.
+     * Notação O(log n + k)
+     *
+     * @param lo menor chave (inclusiva)
+     * @param hi maior chave (inclusiva)
+     * @param action ação executada para cada par chave/valor
+     */
+    public void range(int lo, int hi, BiConsumer<Integer, Integer> action) {
+        range(lo, hi, Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * Igual a range(lo, hi, action), mas entrega no máximo limit pares.
+     * Notação O(log n + limit)
+     *
+     * @param lo menor chave (inclusiva)
+     * @param hi maior chave (inclusiva)
+     * @param limit número máximo de pares entregues
+     * @param action ação executada para cada par chave/valor
+     * @return quantos pares foram entregues
+     */
+    public int range(int lo, int hi, int limit, BiConsumer<Integer, Integer> action) {
+        IntStack stack = new IntStack();
+        int delivered = 0;
+        int n = root;
+        while (delivered < limit) {
+            while (n != NIL) {
+                if (lo <= key(n)) {
+                    stack.push(n);
+                    n = left(n);
+                } else {
+                    n = right(n);
+                }
+            }
+            if (stack.isEmpty()) break; // Nenhuma chave restante >= lo
+            n = stack.pop();
+            if (key(n) > hi) break;
+            action.accept(key(n), value(n));
+            delivered++;
+            n = right(n);
+        }
+        return delivered;
+    }
+
+    /**
+     * Libera o arquivo de apoio, se houver.
+     *
+     * @throws IOException se ocorrer erro ao fechar o arquivo
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /***************************************************************************
+     *      Métodos de caminhamento                                            *
+     ***************************************************************************/
+
+    /**
+     * Caminhamento pré-fixado
+     * Notação O(n)
+     *
+     * @return uma lista contendo os valores da árvore.
+     */
+    public List<Integer> positionsPre() {
+        return positionsPre(new ArrayList<Integer>());
+    }
+
+    /**
+     * Igual a positionsPre(), mas reaproveita a lista res.
+     *
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
+     */
+    public List<Integer> positionsPre(List<Integer> res) {
+        res.clear();
+        IntStack stack = new IntStack();
+        if (root != NIL) stack.push(root);
+        while (!stack.isEmpty()) {
+            int n = stack.pop();
+            res.add(value(n)); //Visita o nodo
+            if (right(n) != NIL) stack.push(right(n));
+            if (left(n) != NIL) stack.push(left(n));
+        }
+        return res;
+    }
+
+    /**
+     * Caminhamento pós-fixado
+     * Notação O(n)
+     *
+     * @return uma lista contendo os valores da árvore.
+     */
+    public List<Integer> positionsPos() {
+        return positionsPos(new ArrayList<Integer>());
+    }
+
+    /**
+     * Igual a positionsPos(), mas reaproveita a lista res.
+     *
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
+     */
+    public List<Integer> positionsPos(List<Integer> res) {
+        res.clear();
+        IntStack stack = new IntStack();
+        int n = root;
+        int last = NIL;
+        while (n != NIL || !stack.isEmpty()) {
+            if (n != NIL) {
+                stack.push(n);
+                n = left(n);
+            } else {
+                int top = stack.peek();
+                if (right(top) != NIL && right(top) != last) {
+                    n = right(top);
+                } else {
+                    res.add(value(top)); //Visita o nodo
+                    last = stack.pop();
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Caminhamento central.
+     * Notação O(n)
+     *
+     * @return lista contendo os valores da árvore.
+     */
+    public List<Integer> positionsCentral() {
+        return positionsCentral(new ArrayList<Integer>());
+    }
+
+    /**
+     * Igual a positionsCentral(), mas reaproveita a lista res.
+     *
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
+     */
+    public List<Integer> positionsCentral(List<Integer> res) {
+        res.clear();
+        IntStack stack = new IntStack();
+        int n = root;
+        while (n != NIL || !stack.isEmpty()) {
+            while (n != NIL) {
+                stack.push(n);
+                n = left(n);
+            }
+            n = stack.pop();
+            res.add(value(n)); //Visita o nodo
+            n = right(n);
+        }
+        return res;
+    }
+
+    /**
+     * Caminhamento em largura, na mesma ordem de SplayTree.positionsWidth().
+     * Notação O(n)
+     *
+     * @return lista com os valores da arvore
+     */
+    public List<Integer> positionsWidth() {
+        return positionsWidth(new ArrayList<Integer>());
+    }
+
+    /**
+     * Igual a positionsWidth(), mas reaproveita a lista res.
+     *
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
+     */
+    public List<Integer> positionsWidth(List<Integer> res) {
+        res.clear();
+        IntStack fila = new IntStack(); // Usada como fila: lê a partir de 'head'
+        int head = 0;
+        if (root != NIL) fila.push(root);
+        while (head < fila.size()) {
+            int n = fila.get(head++);
+            if (right(n) != NIL) fila.push(right(n));
+            if (left(n) != NIL) fila.push(left(n));
+            res.add(value(n));
+        }
+        return res;
+    }
+
+    // Calcula a altura em pós-ordem, sem recursão. Se checkBalance for
+    // true, retorna Integer.MIN_VALUE ao achar um nodo desbalanceado.
+    private int heights(boolean checkBalance) {
+        if (root == NIL) return -1;
+        IntStack stack = new IntStack();
+        IntStack hs = new IntStack();
+        int n = root;
+        int last = NIL;
+        while (n != NIL || !stack.isEmpty()) {
+            if (n != NIL) {
+                stack.push(n);
+                n = left(n);
+            } else {
+                int top = stack.peek();
+                if (right(top) != NIL && right(top) != last) {
+                    n = right(top);
+                } else {
+                    int hr = right(top) == NIL ? -1 : hs.pop();
+                    int hl = left(top) == NIL ? -1 : hs.pop();
+                    if (checkBalance && Math.abs(hl - hr) >= 2) return Integer.MIN_VALUE;
+                    hs.push(1 + Math.max(hl, hr));
+                    last = stack.pop();
+                }
+            }
+        }
+        return hs.pop();
+    }
+
+    /**
+     * Splay top-down iterativo, igual ao de SplayTree, sobre registros.
+     *
+     * @param h raiz da subárvore
+     * @param key
+     * @return a nova raiz da subárvore
+     */
+    private int splay(int h, int key) {
+        if (h == NIL) return NIL;
+
+        int l = HEADER, r = HEADER;
+        setLeft(HEADER, NIL);
+        setRight(HEADER, NIL);
+
+        while (true) {
+            int hk = key(h);
+            if (key < hk) {
+                if (left(h) == NIL) break;
+                if (key < key(left(h))) {
+                    h = rotateRight(h); // zig-zig
+                    if (left(h) == NIL) break;
+                }
+                setLeft(r, h);
+                r = h;
+                h = left(h);
+            } else if (key > hk) {
+                if (right(h) == NIL) break;
+                if (key > key(right(h))) {
+                    h = rotateLeft(h); // zig-zig
+                    if (right(h) == NIL) break;
+                }
+                setRight(l, h);
+                l = h;
+                h = right(h);
+            } else break;
+        }
+
+        setRight(l, left(h));
+        setLeft(r, right(h));
+        setLeft(h, right(HEADER));
+        setRight(h, left(HEADER));
+        return h;
+    }
+
+    private int rotateRight(int h) {
+        int x = left(h);
+        setLeft(h, right(x));
+        setRight(x, h);
+        return x;
+    }
+
+    private int rotateLeft(int h) {
+        int x = right(h);
+        setRight(h, left(x));
+        setLeft(x, h);
+        return x;
+    }
+
+    /***************************************************************************
+     *      Gerência dos registros                                             *
+     ***************************************************************************/
+
+    // Pega um registro da lista de livres ou, se ela estiver vazia, o
+    // próximo registro nunca usado, criando um novo bloco se necessário
+    private int allocate(int key, int value) {
+        int n;
+        if (free != NIL) {
+            n = free;
+            free = left(n);
+        } else {
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Número máximo de registros atingido");
+            }
+            if ((next >>> shift) == chunkCount) {
+                addChunk();
+            }
+            n = next++;
+        }
+        setKey(n, key);
+        setValue(n, value);
+        setLeft(n, NIL);
+        setRight(n, NIL);
+        return n;
+    }
+
+    private void release(int n) {
+        setKey(n, 0);
+        setValue(n, 0);
+        setRight(n, NIL);
+        setLeft(n, free);
+        free = n;
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            ByteBuffer[] bigger = new ByteBuffer[chunks.length * 2];
+            System.arraycopy(chunks, 0, bigger, 0, chunkCount);
+            chunks = bigger;
+        }
+        int bytes = (mask + 1) * RECORD_SIZE;
+        ByteBuffer chunk;
+        if (file == null) {
+            chunk = ByteBuffer.allocateDirect(bytes);
+        } else {
+            try {
+                chunk = file.map(FileChannel.MapMode.READ_WRITE, (long) chunkCount * bytes, bytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível mapear o arquivo", e);
+            }
+        }
+        chunks[chunkCount++] = chunk.order(ByteOrder.nativeOrder());
+    }
+
+    private int key(int n) {
+        return chunks[n >>> shift].getInt((n & mask) * RECORD_SIZE + KEY);
+    }
+
+    private int value(int n) {
+        return chunks[n >>> shift].getInt((n & mask) * RECORD_SIZE + VALUE);
+    }
+
+    private int left(int n) {
+        return chunks[n >>> shift].getInt((n & mask) * RECORD_SIZE + LEFT);
+    }
+
+    private int right(int n) {
+        return chunks[n >>> shift].getInt((n & mask) * RECORD_SIZE + RIGHT);
+    }
+
+    private void setKey(int n, int key) {
+        chunks[n >>> shift].putInt((n & mask) * RECORD_SIZE + KEY, key);
+    }
+
+    private void setValue(int n, int value) {
+        chunks[n >>> shift].putInt((n & mask) * RECORD_SIZE + VALUE, value);
+    }
+
+    private void setLeft(int n, int left) {
+        chunks[n >>> shift].putInt((n & mask) * RECORD_SIZE + LEFT, left);
+    }
+
+    private void setRight(int n, int right) {
+        chunks[n >>> shift].putInt((n & mask) * RECORD_SIZE + RIGHT, right);
+    }
+
+    // === Pilha de inteiros usada pelos caminhamentos iterativos ===
+    private static class IntStack {
+        private int[] data = new int[64];
+        private int size;
+
+        public void push(int v) {
+            if (size == data.length) {
+                int[] bigger = new int[data.length * 2];
+                System.arraycopy(data, 0, bigger, 0, size);
+                data = bigger;
+            }
+            data[size++] = v;
+        }
+
+        public int pop() {
+            return data[--size];
+        }
+
+        public int peek() {
+            return data[size - 1];
+        }
+
+        public int get(int i) {
+            return data[i];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
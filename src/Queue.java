@@ -5,42 +5,55 @@
  */
 
 
-import java.util.ArrayList;
-
 public class Queue<E> {
 
-    private ArrayList<E> fila;
+    // Buffer circular: os elementos ficam de fila[inicio] até
+    // fila[(inicio + count - 1) % fila.length], de modo que enqueue e
+    // dequeue são O(1).
+    private E[] fila;
+    private int inicio;
+    private int count;
 
+    @SuppressWarnings("unchecked")
     public Queue() {
-        fila = new ArrayList();
+        fila = (E[]) new Object[16];
+        inicio = 0;
+        count = 0;
     }
 
     public int size() {
-        return fila.size();
+        return count;
     }
 
     public boolean isEmpty() {
-        return fila.isEmpty();
+        return count == 0;
     }
 
     public E head() throws EmptyQueueException {
-        if (fila.isEmpty()) {
+        if (count == 0) {
             throw new EmptyQueueException("A fila esta vazia");
         } else {
-            E elem = fila.get(0);
+            E elem = fila[inicio];
             return elem;
         }
     }
 
     public void enqueue(E element) {
-        fila.add(element);
+        if (count == fila.length) {
+            grow();
+        }
+        fila[(inicio + count) % fila.length] = element;
+        count++;
     }
 
     public E dequeue() throws EmptyQueueException {
-        if (fila.isEmpty()) {
+        if (count == 0) {
             throw new EmptyQueueException("Queue is empty!");
         } else {
-            E elem = fila.remove(0);
+            E elem = fila[inicio];
+            fila[inicio] = null; // Libera a referência para o GC
+            inicio = (inicio + 1) % fila.length;
+            count--;
             if (elem != null) {
                 return elem;
             } else {
@@ -50,24 +63,36 @@ public class Queue<E> {
     }
 
     public boolean reverse() {
-        if (fila.isEmpty()) {
+        if (count == 0) {
             return false;
         } else {
-            int totalElementos = fila.size();
             E elem1, elem2;
-            for (int i = 0, j = totalElementos - 1; i < totalElementos / 2; i++, j--) {
-                elem1 = fila.get(j);
-                elem2 = fila.get(i);
-                fila.remove(i);
-                fila.add(i, elem1);
-                fila.remove(j);
-                fila.add(j, elem2);
+            for (int i = 0, j = count - 1; i < count / 2; i++, j--) {
+                elem1 = fila[(inicio + j) % fila.length];
+                elem2 = fila[(inicio + i) % fila.length];
+                fila[(inicio + i) % fila.length] = elem1;
+                fila[(inicio + j) % fila.length] = elem2;
             }
             return true;
         }
     }
 
     public void clear() {
-        fila.clear();
+        for (int i = 0; i < count; i++) {
+            fila[(inicio + i) % fila.length] = null;
+        }
+        inicio = 0;
+        count = 0;
+    }
+
+    // Dobra a capacidade, copiando os elementos já na ordem da fila
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        E[] maior = (E[]) new Object[fila.length * 2];
+        for (int i = 0; i < count; i++) {
+            maior[i] = fila[(inicio + i) % fila.length];
+        }
+        fila = maior;
+        inicio = 0;
     }
 }
@@ -1,424 +1,242 @@
 /**
  * Splay Tree
  *
+ * Variante com valores genéricos. Para contadores e pontuações sem boxing,
+ * ver LongSplayTree e DoubleSplayTree; todas compartilham o núcleo de
+ * AbstractSplayTree.
+ *
  * @author Adriane, Matheus e Pércio
  */
 
-public class SplayTree<Key extends Comparable<Key>, Value> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
 
-    //Raiz da árvore
-    private Node root;
+public class SplayTree<Key extends Comparable<Key>, Value> extends AbstractSplayTree<Key> {
 
     // === Classe Node ===
-    private class Node {
-        private Key key;            // Chave do nodo
-        private Integer value;      // Valor
-        private Node left, right;   // Referências de esquerda e direita do nodo
-        private Node father;        // Referência para o pai do nodo
-
-        // == Constructor Node ==
-        public Node(Key key, Integer value) {
-            this.key = key;
-            this.value = value;
-        }
+    private static class ValueNode<Key, Value> extends Node<Key> {
+        private Value value;        // Valor
     }
 
     /**
-     * Verifica se a chave passada por parâmetro
-     *  existe na árvore.
-     *  Notação O(n)
-     *
-     * @param key
-     * @return true se a chave existe ou false se não existir na árvore
+     * Cria uma árvore vazia, sem reciclagem de nodos.
      */
-    public boolean contains(Key key) {
-        return get(key) != 0;
+    public SplayTree() {
+        this(0);
     }
 
     /**
-     * Verifica se a árvore esta vazia.
-     * Notação O(n)
+     * Cria uma árvore vazia que guarda até recycleLimit nodos removidos
+     * para reutilizá-los em inserções futuras, reduzindo a alocação de
+     * objetos quando há muitas inserções e remoções.
      *
-     * @return true se a árvore estiver vazia ou
-     * false se tiver ao menos um elemento.
+     * @param recycleLimit número máximo de nodos livres guardados
+     *                     (0 desativa a reciclagem)
      */
-    public boolean isEmpty() {
-        return root == null;
+    public SplayTree(int recycleLimit) {
+        super(recycleLimit);
+    }
+
+    @Override
+    protected Node<Key> createNode() {
+        return new ValueNode<Key, Value>();
+    }
+
+    @Override
+    protected void clearValue(Node<Key> n) {
+        valueNode(n).value = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueNode<Key, Value> valueNode(Node<Key> n) {
+        return (ValueNode<Key, Value>) n;
     }
 
     /**
      * Pega um valor através da chave passada por parâmetro.
-     * Notação O(n)
+     * Notação O(log n) amortizada
      *
      * @param key
      * @return o valor do nodo que possui a chave indicada ou null se a
      * chave não existir na árvore.
      */
-    public int get(Key key) {
-        root = splay(root, key);
-        int cmp = key.compareTo(root.key);
-        if (cmp == 0) return root.value;
-        else return 0;
+    public Value get(Key key) {
+        Node<Key> n = find(key);
+        return n == null ? null : valueNode(n).value;
     }
 
     /**
-     * Método que remove o nodo com chave passada por parâmetro da árvore.
-     * Notação O(log n)
+     * Pega o valor da chave ou defaultValue se ela não existir. Diferente
+     * de get, distingue uma chave ausente de uma chave guardada com null.
+     * Notação O(log n) amortizada
      *
      * @param key
+     * @param defaultValue valor retornado se a chave não existir
+     * @return o valor da chave ou defaultValue
      */
-    public void remove(Key key) {
-        if (root == null) return; // árvore vazia
-
-        root = splay(root, key);
-
-        int cmp = key.compareTo(root.key);
-
-        if (cmp == 0) {
-            if (root.left == null) {
-                root = root.right;
-            } else {
-                Node x = root.right;
-                root = root.left;
-                splay(root, key);
-                root.right = x;
-            }
-        }
-
-        // Se compareTo retornar valor != 0, o valor não esta na árvore
+    public Value getOrDefault(Key key, Value defaultValue) {
+        Node<Key> n = find(key);
+        return n == null ? defaultValue : valueNode(n).value;
     }
 
     /**
      * Método de inserção de um novo elemento na árvore.
-     * Notação O(log n)
+     * Notação O(log n) amortizada
      *
      * @param key
      * @param value
      */
-    public void put(Key key, int value) {
-        // Se a árvore estiver vazia,
-        // inclui o elemento na raiz
-        if (root == null) {
-            root = new Node(key, value);
-            return;
-        }
-
-        root = splay(root, key);
-
-        int cmp = key.compareTo(root.key);
-
-        // Insere o novo nodo sempre na raiz
-        // mas antes verifica se a raiz atual da árvore
-        // é maior ou menor que o novo nodo que está sendo inserido
-        // para decidir de qual a antiga raiz será alocada como filha do novo nodo.
-        if (cmp < 0) {
-            Node n = new Node(key, value);
-            n.left = root.left;
-            n.right = root;
-            root.left = null;
-            root = n;
-            root.left.father = root;
-            root.right.father = root;
-        }
-        else if (cmp > 0) {
-            Node n = new Node(key, value);
-            n.right = root.right;
-            n.left = root;
-            root.right = null;
-            root = n;
-            root.left.father = root;
-        }
-
-        // Se for um valor duplicado, apenas substitui o valor da raiz
-        else {
-            root.value = value;
-        }
+    public void put(Key key, Value value) {
+        valueNode(insert(key, 0)).value = value;
     }
 
     /**
-     * Método de espelhamento da árvore.
-     * Notação O(log n)
+     * Insere um elemento que deixa de existir após ttlMillis milissegundos.
+     * Depois do prazo a entrada fica invisível para get, contains e os
+     * caminhamentos, e é removida aos poucos pelas operações seguintes.
+     * Um put sem prazo na mesma chave torna a entrada permanente.
+     * Notação O(log n) amortizada
      *
-     * @param h
      * @param key
-     * @return o nodo pesquisado
+     * @param value
+     * @param ttlMillis tempo de vida em milissegundos (> 0)
      */
-    private Node splay(Node h, Key key) {
-        if (h == null) return null;
-
-        int cmp1 = key.compareTo(h.key);
-
-        if (cmp1 < 0) {
-            //Se o valor não existe na árvore retorna ele mesmo
-            if (h.left == null) {
-                return h;
-            }
-
-            // Se o valor existe na árvore
-            int cmp2 = key.compareTo(h.left.key);
-            if (cmp2 < 0) {
-                h.left.left = splay(h.left.left, key);
-                h = rotateRight(h);
-            } else if (cmp2 > 0) {
-                h.left.right = splay(h.left.right, key);
-                if (h.left.right != null)
-                    h.left = rotateLeft(h.left);
-            }
-
-            if (h.left == null) return h;
-            else return rotateRight(h);
-        } else if (cmp1 > 0) {
-            //Se o valor não existe na árvore retorna ele mesmo
-            if (h.right == null) {
-                return h;
-            }
-
-            int cmp2 = key.compareTo(h.right.key);
-            if (cmp2 < 0) {
-                h.right.left = splay(h.right.left, key);
-                if (h.right.left != null)
-                    h.right = rotateRight(h.right);
-            } else if (cmp2 > 0) {
-                h.right.right = splay(h.right.right, key);
-                h = rotateLeft(h);
-            }
-
-            if (h.right == null) return h;
-            else return rotateLeft(h);
-        } else return h;
+    public void put(Key key, Value value, long ttlMillis) {
+        valueNode(insert(key, deadlineAfter(ttlMillis))).value = value;
     }
 
     /**
-     * Método que retorna a referencia do nodo que possui o valor
-     * passado como parâmetro.
-     * Notação O(log n)
+     * Método que retorna o valor do pai do nodo da chave. Não faz splay.
+     * Notação O(h), onde h é a altura da árvore
      *
-     * @param element e target
-     * @return referencia do nodo
+     * @param key
+     * @return valor do pai, ou null se a chave for a raiz ou não existir
      */
-    private Node searchNodeRef(Integer element, Node target) {
-        int r;
-
-        if (element == null || target == null) {
-            return null;
-        }
-
-        r = target.value.compareTo(element);
-
-        if (r == 0) {
-            return target;
-        } else if (r > 0) {
-            return searchNodeRef(element, target.left);
-        } else {
-            return searchNodeRef(element, target.right);
-        }
+    public Value getParent(Key key) {
+        Node<Key> parent = parentOf(key);
+        return parent == null ? null : valueNode(parent).value;
     }
 
-
     /**
-     * Método que retorna o pai do elemento.
-     * Notação O(n)
+     * Percorre, em ordem crescente de chave, todos os nodos cuja chave
+     * está no intervalo [lo, hi], entregando chave e valor para a ação.
+     * Não faz splay, portanto não altera a forma da árvore.
+     * Notação O(log n + k), onde k é o número de chaves no intervalo
      *
-     * @param n
-     * @return pai do elemento
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param action ação executada para cada par chave/valor
      */
-    public int getParent(Integer n) {
-        Node aux = searchNodeRef(n, root);
-        int parent = aux.father.value;
-        root = splay(root, aux.father.key);
-        return parent;
+    public void range(Key lo, Key hi, BiConsumer<? super Key, ? super Value> action) {
+        rangeNodes(lo, hi, n -> action.accept(n.key, valueNode(n).value));
     }
 
     /**
-     * Método que verifica se a árvore é balanceada
-     * Notação O(n)
+     * Igual a range(lo, hi, action), mas entrega no máximo limit pares.
+     * Notação O(log n + limit)
      *
-     * @return true se a árvore for balanceada ou
-     * false se não for.
+     * @param lo menor chave do intervalo (inclusiva)
+     * @param hi maior chave do intervalo (inclusiva)
+     * @param limit número máximo de pares entregues
+     * @param action ação executada para cada par chave/valor
+     * @return quantos pares foram entregues
      */
-    public boolean isBalanced() {
-        return isBalanced(root);
+    public int range(Key lo, Key hi, int limit, BiConsumer<? super Key, ? super Value> action) {
+        return rangeNodes(lo, hi, limit, n -> action.accept(n.key, valueNode(n).value));
     }
 
-    private boolean isBalanced(Node root) {
-        if (root == null) {
-            return true;
-        }
 
-        return (Math.abs(height(root.left) - height(root.right)) < 2)
-                && isBalanced(root.left) && isBalanced(root.right);
-    }
+    /***************************************************************************
+     *      Métodos de caminhamento                                            *
+     ***************************************************************************/
 
     /**
-     * Método que retorna a altura da árvore.
+     * Caminhamento pré-fixado
      * Notação O(n)
      *
-     * @return height
+     * @return uma lista contendo os valores da árvore.
      */
-    public int height() {
-        return height(root);
-    }
-
-    private int height(Node x) {
-        if (x == null) return -1;
-        return 1 + Math.max(height(x.left), height(x.right));
+    public List<Value> positionsPre() {
+        return positionsPre(new ArrayList<Value>());
     }
 
     /**
-     * Método que retorna o tamanho da árvore.
-     * Notação O(n)
+     * Igual a positionsPre(), mas reaproveita a lista res.
      *
-     * @return
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
      */
-    public int size() {
-        return size(root);
-    }
-
-    private int size(Node x) {
-        if (x == null) return 0;
-        else return 1 + size(x.left) + size(x.right);
+    public List<Value> positionsPre(List<Value> res) {
+        return positions(PRE, res);
     }
 
-
     /**
-     * Método que realiza a rotação dos nodos à direita.
-     * É utilizado pelo metodo Splay.
-     *
+     * Caminhamento pós-fixado
      * Notação O(n)
      *
-     * @param h
-     * @return o nodo alterado de posição
+     * @return uma lista contendo os valores da árvore.
      */
-    private Node rotateRight(Node h) {
-        Node x = h.left;
-        h.left = x.right;
-        x.right = h;
-        x.father = h;
-        return x;
+    public List<Value> positionsPos() {
+        return positionsPos(new ArrayList<Value>());
     }
 
-
     /**
-     * Método que realiza a rotação dos nodos à esquerda.
-     * É utilizado pelo metodo Splay.
-     *
-     * Notação O(n)
+     * Igual a positionsPos(), mas reaproveita a lista res.
      *
-     * @param h
-     * @return o nodo alterado de posição
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
      */
-    private Node rotateLeft(Node h) {
-        Node x = h.right;
-        h.right = x.left;
-        x.left = h;
-        x.father = h;
-        return x;
+    public List<Value> positionsPos(List<Value> res) {
+        return positions(POS, res);
     }
 
-
-    /***************************************************************************
-     *      Métodos de caminhamento                                            *
-     ***************************************************************************/
-
     /**
-     * Caminhamento pré-fixado
+     * Caminhamento central.
      * Notação O(n)
      *
-     * @return uma lista de inteiros contendo os elementos da árvore.
+     * @return lista contendo os valores da árvore.
      */
-    public LinkedListOfInteger positionsPre() {
-        LinkedListOfInteger res = new LinkedListOfInteger();
-        positionsPreAux(root, res);
-        return res;
-    }
-    private void positionsPreAux(Node n, LinkedListOfInteger res) {
-        if (n != null) {
-            res.add(n.value); //Visita o nodo
-            positionsPreAux(n.left, res); //Visita a subarvore esquerda
-            positionsPreAux(n.right, res); //Visita a subarvore direita
-        }
+    public List<Value> positionsCentral() {
+        return positionsCentral(new ArrayList<Value>());
     }
 
     /**
-     * Caminhamento pós-fixado
-     * Notação O(n)
+     * Igual a positionsCentral(), mas reaproveita a lista res.
      *
-     * @return uma lista de inteiros contendo os elementos da árvore.
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
      */
-    public LinkedListOfInteger positionsPos() {
-        LinkedListOfInteger res = new LinkedListOfInteger();
-        positionsPosAux(root, res);
-        return res;
-    }
-    private void positionsPosAux(Node n, LinkedListOfInteger res) {
-        if (n != null) {
-            positionsPosAux(n.left, res); //Visita a subarvore esquerda
-            positionsPosAux(n.right, res); //Visita a subarvore direita
-            res.add(n.value); //Visita o nodo
-        }
+    public List<Value> positionsCentral(List<Value> res) {
+        return positions(CENTRAL, res);
     }
 
     /**
-     * Caminhamento central.
+     * Retorna uma lista com todos os valores da árvore na ordem de
+     * caminhamento em largura.
+     *
      * Notação O(n)
      *
-     * @return lista de inteiros contendo os elementos da árvore.
+     * @return lista com os valores da arvore
      */
-    public LinkedListOfInteger positionsCentral() {
-        LinkedListOfInteger res = new LinkedListOfInteger();
-        positionsCentralAux(root, res);
-        return res;
-    }
-    private void positionsCentralAux(Node n, LinkedListOfInteger res) {
-        if (n != null) {
-            positionsCentralAux(n.left, res); //Visita a subarvore esquerda
-            res.add(n.value); //Visita o nodo
-            positionsCentralAux(n.right, res); //Visita a subarvore direita
-        }
+    public List<Value> positionsWidth() {
+        return positionsWidth(new ArrayList<Value>());
     }
 
     /**
-     * Retorna uma lista com todos os elementos da árvore na ordem de
-     * caminhamento em largura.
+     * Igual a positionsWidth(), mas reaproveita a lista res.
      *
-     * Notação O(n)
-     *
-     * @return LinkedListOfInteger lista com os elementos da arvore
+     * @param res lista que será esvaziada e preenchida
+     * @return a própria lista res
      */
-    public LinkedListOfInteger positionsWidth() {
-        Queue<Node> fila = new Queue<>();
-        LinkedListOfInteger res = new LinkedListOfInteger();
-        fila.enqueue(root);
-        positionsWidthAux(root, res, fila);
-        return res;
+    public List<Value> positionsWidth(List<Value> res) {
+        return positions(WIDTH, res);
     }
 
-    private void positionsWidthAux(Node n, LinkedListOfInteger res, Queue<Node> fila) {
-        if (n != null) {
-            if (!fila.isEmpty()) {
-                // Incluir os nodos filhos na fila
-                if (n.right != null) {
-                    fila.enqueue(n.right);
-                }
-
-                if (n.left != null) {
-                    fila.enqueue(n.left);
-                }
-
-                //Pega o nodo que esta sendo visitado e inclui na lista
-                res.add(n.value);
-
-                //exclui esse elemento visitado da fila
-                fila.dequeue();
-
-                //Chama o próprio método aux passando o
-                //primeiro elemento da fila.
-                if (!fila.isEmpty()) {
-                    positionsWidthAux(fila.head(), res, fila);
-                }
-
-            }
-        }
+    private List<Value> positions(int order, List<Value> res) {
+        res.clear();
+        traverse(order, n -> res.add(valueNode(n).value));
+        return res;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Mede tempo e bytes alocados por operação em uma carga de inserções e
+ * remoções contínuas, com e sem reciclagem de nodos.
+ *
+ * Uso: java SplayTreeChurnBenchmark [tamanho] [operacoes]
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class SplayTreeChurnBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+
+        checkHotKeyCache();
+
+        // Duas rodadas: a primeira serve de aquecimento para o JIT
+        for (int round = 0; round < 2; round++) {
+            SplayTree<Integer, Integer> plain = new SplayTree<Integer, Integer>();
+            tree("árvore sem reciclagem", plain, plain::put, size, ops);
+            SplayTree<Integer, Integer> recycled = new SplayTree<Integer, Integer>(1024);
+            tree("árvore com reciclagem", recycled, recycled::put, size, ops);
+            LongSplayTree<Integer> longs = new LongSplayTree<Integer>(1024);
+            tree("árvore long com reciclagem", longs, longs::put, size, ops);
+            traversal("caminhamento, lista nova", false, size, ops / size);
+            traversal("caminhamento, lista reusada", true, size, ops / size);
+        }
+    }
+
+    // Grava um valor inteiro na árvore sendo medida
+    private interface IntPut {
+        void put(int key, int value);
+    }
+
+    // Troca uma chave aleatória da árvore por outra, mantendo o tamanho
+    private static void tree(String name, AbstractSplayTree<Integer> st, IntPut put, int size, int ops) {
+        Random rnd = new Random(42);
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rnd.nextInt();
+            put.put(keys[i], i);
+        }
+        long b0 = allocated();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            int j = rnd.nextInt(size);
+            st.remove(keys[j]);
+            keys[j] = rnd.nextInt();
+            put.put(keys[j], i);
+        }
+        report(name, ops, System.nanoTime() - t0, allocated() - b0);
+    }
+
+    // Verifica o cache de chaves quentes com reciclagem em uma chave cujo
+    // equals discorda do compareTo: BigDecimal 1.0 e 1.00 são a mesma
+    // chave para a árvore, mas não para o cache
+    private static void checkHotKeyCache() {
+        SplayTree<BigDecimal, String> st = new SplayTree<BigDecimal, String>(1024);
+        st.enableHotKeyCache(64);
+        st.put(new BigDecimal("1.0"), "one");
+        st.get(new BigDecimal("1.0"));
+        st.remove(new BigDecimal("1.00"));
+        st.put(new BigDecimal("7"), "seven"); // Reaproveita o nodo removido
+        if (st.get(new BigDecimal("1.0")) != null || st.contains(new BigDecimal("1.0"))) {
+            throw new IllegalStateException("cache devolveu um nodo removido");
+        }
+
+        // Carga aleatória comparada com um TreeMap, que também usa compareTo
+        TreeMap<BigDecimal, Integer> model = new TreeMap<BigDecimal, Integer>();
+        SplayTree<BigDecimal, Integer> churn = new SplayTree<BigDecimal, Integer>(1024);
+        churn.enableHotKeyCache(64);
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            BigDecimal key = BigDecimal.valueOf(rnd.nextInt(128)).setScale(rnd.nextInt(3));
+            int op = rnd.nextInt(4);
+            if (op == 0) {
+                churn.put(key, i);
+                model.put(key, i);
+            } else if (op == 1) {
+                churn.remove(key);
+                model.remove(key);
+            } else if (!Objects.equals(churn.get(key), model.get(key))) {
+                throw new IllegalStateException("cache inconsistente na chave " + key);
+            }
+        }
+        if (churn.size() != model.size()) {
+            throw new IllegalStateException("tamanho inconsistente");
+        }
+    }
+
+    private static void traversal(String name, boolean reuse, int size, int times) {
+        SplayTree<Integer, Integer> st = new SplayTree<Integer, Integer>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < size; i++) {
+            st.put(rnd.nextInt(), i % 100); // Valores pequenos vêm do cache de Integer
+        }
+        List<Integer> res = new ArrayList<Integer>();
+        long b0 = allocated();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            if (reuse) st.positionsCentral(res);
+            else res = st.positionsCentral();
+        }
+        report(name, times * size, System.nanoTime() - t0, allocated() - b0);
+    }
+
+    private static long allocated() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(String name, long ops, long nanos, long bytes) {
+        System.out.printf("%-30s %8.1f ns/op  %8.1f bytes/op%n",
+                name, (double) nanos / ops, (double) bytes / ops);
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BiConsumer;
+
+/**
+ * Cliente do SplayTreeServer.
+ *
+ * Além das operações individuais, oferece operações em lote que enviam
+ * todas as requisições de uma vez (pipelining) e só depois leem as
+ * respostas. Não é thread-safe: use um cliente por thread.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class SplayTreeClient implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Máximo de requisições enviadas antes de ler as respostas; limita o
+    // volume em trânsito para que cliente e servidor não fiquem ambos
+    // bloqueados escrevendo.
+    private static final int MAX_PIPELINE = BUFFER_SIZE / SplayTreeProtocol.MAX_REQUEST_SIZE;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Conecta ao servidor em localhost na porta indicada.
+     *
+     * @param port porta do servidor
+     * @throws IOException se não for possível conectar
+     */
+    public SplayTreeClient(int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip(); // Buffer de entrada começa vazio, em modo de leitura
+    }
+
+    /**
+     * Insere ou substitui o valor associado à chave.
+     *
+     * @param key
+     * @param value
+     * @throws IOException em caso de erro de comunicação
+     */
+    public void put(int key, int value) throws IOException {
+        putAll(new int[]{key}, new int[]{value});
+    }
+
+    /**
+     * Pega o valor associado à chave.
+     *
+     * @param key
+     * @return o valor ou null se a chave não existir
+     * @throws IOException em caso de erro de comunicação
+     */
+    public Integer get(int key) throws IOException {
+        return getAll(new int[]{key})[0];
+    }
+
+    /**
+     * Remove a chave do servidor.
+     *
+     * @param key
+     * @throws IOException em caso de erro de comunicação
+     */
+    public void remove(int key) throws IOException {
+        removeAll(new int[]{key});
+    }
+
+    /**
+     * Insere vários pares chave/valor usando pipelining.
+     *
+     * @param keys chaves
+     * @param values valores, na mesma posição das chaves
+     * @throws IOException em caso de erro de comunicação
+     */
+    public void putAll(int[] keys, int[] values) throws IOException {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys e values têm tamanhos diferentes");
+        }
+        for (int start = 0; start < keys.length; start += MAX_PIPELINE) {
+            int end = Math.min(keys.length, start + MAX_PIPELINE);
+            for (int i = start; i < end; i++) {
+                out.put(SplayTreeProtocol.OP_PUT);
+                out.putInt(keys[i]);
+                out.putInt(values[i]);
+            }
+            flush();
+            for (int i = start; i < end; i++) {
+                readStatus();
+            }
+        }
+    }
+
+    /**
+     * Pega os valores de várias chaves usando pipelining.
+     *
+     * @param keys chaves
+     * @return os valores, na mesma posição das chaves (null se não existir)
+     * @throws IOException em caso de erro de comunicação
+     */
+    public Integer[] getAll(int[] keys) throws IOException {
+        Integer[] res = new Integer[keys.length];
+        for (int start = 0; start < keys.length; start += MAX_PIPELINE) {
+            int end = Math.min(keys.length, start + MAX_PIPELINE);
+            for (int i = start; i < end; i++) {
+                out.put(SplayTreeProtocol.OP_GET);
+                out.putInt(keys[i]);
+            }
+            flush();
+            for (int i = start; i < end; i++) {
+                byte status = readStatus();
+                int value = readInt();
+                res[i] = (status == SplayTreeProtocol.STATUS_OK) ? value : null;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remove várias chaves usando pipelining.
+     *
+     * @param keys chaves
+     * @throws IOException em caso de erro de comunicação
+     */
+    public void removeAll(int[] keys) throws IOException {
+        for (int start = 0; start < keys.length; start += MAX_PIPELINE) {
+            int end = Math.min(keys.length, start + MAX_PIPELINE);
+            for (int i = start; i < end; i++) {
+                out.put(SplayTreeProtocol.OP_REMOVE);
+                out.putInt(keys[i]);
+            }
+            flush();
+            for (int i = start; i < end; i++) {
+                readStatus();
+            }
+        }
+    }
+
+    /**
+     * Percorre, em ordem crescente, os pares cuja chave está em [lo, hi].
+     *
+     * @param lo menor chave (inclusiva)
+     * @param hi maior chave (inclusiva)
+     * @param action ação executada para cada par chave/valor
+     * @throws IOException em caso de erro de comunicação
+     */
+    public void range(int lo, int hi, BiConsumer<Integer, Integer> action) throws IOException {
+        // O servidor responde em partes de até MAX_RANGE_PAIRS pares
+        while (true) {
+            out.put(SplayTreeProtocol.OP_RANGE);
+            out.putInt(lo);
+            out.putInt(hi);
+            flush();
+            byte status = readStatus();
+            int count = readInt();
+            int k = lo;
+            for (int i = 0; i < count; i++) {
+                k = readInt();
+                int v = readInt();
+                action.accept(k, v);
+            }
+            // Em PARTIAL ainda existe chave maior que k dentro do intervalo
+            if (status != SplayTreeProtocol.STATUS_PARTIAL) return;
+            lo = k + 1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private byte readStatus() throws IOException {
+        fill(1);
+        return in.get();
+    }
+
+    private int readInt() throws IOException {
+        fill(4);
+        return in.getInt();
+    }
+
+    // Garante que existam ao menos 'bytes' bytes disponíveis para leitura
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) return;
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Conexão fechada pelo servidor");
+            }
+        }
+        in.flip();
+    }
+}
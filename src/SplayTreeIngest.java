@@ -0,0 +1,370 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Pipeline de ingestão com um único escritor para uma SplayTree.
+ *
+ * Várias threads produtoras publicam operações de put/remove em uma fila
+ * limitada (quando a fila está cheia, o produtor espera). Uma única thread
+ * aplicadora retira até maxBatch operações por vez, ordena por chave,
+ * mantém apenas a última escrita de cada chave e aplica o lote na árvore
+ * em ordem crescente de chave.
+ *
+ * Se aplicar um lote falhar (por exemplo, um compareTo que lança exceção),
+ * o pipeline para: flush() e os produtores recebem IllegalStateException
+ * com o erro original como causa.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class SplayTreeIngest<Key extends Comparable<Key>, Value> {
+
+    // === Operação publicada por um produtor ===
+    private static class Op<Key, Value> {
+        private final Key key;
+        private final Value value;
+        private final boolean remove;
+
+        public Op(Key key, Value value, boolean remove) {
+            this.key = key;
+            this.value = value;
+            this.remove = remove;
+        }
+    }
+
+    private final SplayTree<Key, Value> tree;
+    private final int capacity;
+    private final int maxBatch;
+
+    // Fila de operações pendentes, protegida por 'lock'
+    private final Queue<Op<Key, Value>> fila = new Queue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition applied = lock.newCondition();
+
+    // Garante que leituras não acontecem durante a aplicação de um lote
+    private final ReentrantLock treeLock = new ReentrantLock();
+
+    private long publishedCount;   // Operações publicadas até agora
+    private long appliedCount;     // Operações já refletidas na árvore
+    private boolean running;
+    private Thread applier;
+    private Throwable failure;     // Erro que encerrou a thread aplicadora
+    private boolean exited;        // A thread aplicadora terminou
+
+    // === Métricas (escritas só pela thread aplicadora) ===
+    private volatile int lastBatchSize;
+    private volatile long batches;
+    private volatile long coalesced;
+    private volatile long lastApplyNanos;
+    private volatile long maxApplyNanos;
+    private volatile long totalApplyNanos;
+
+    /**
+     * Cria o pipeline sobre a árvore indicada.
+     *
+     * @param tree árvore que passa a ser escrita apenas pela thread aplicadora
+     * @param capacity número máximo de operações pendentes na fila
+     * @param maxBatch número máximo de operações aplicadas por lote
+     */
+    public SplayTreeIngest(SplayTree<Key, Value> tree, int capacity, int maxBatch) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("capacity e maxBatch devem ser positivos");
+        }
+        this.tree = tree;
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Inicia a thread aplicadora.
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (applier != null) {
+                throw new IllegalStateException("Pipeline já iniciado");
+            }
+            running = true;
+            applier = new Thread(this::loop, "splaytree-ingest");
+            applier.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica todas as operações pendentes e para a thread aplicadora.
+     *
+     * @throws InterruptedException se for interrompido esperando a thread
+     */
+    public void stop() throws InterruptedException {
+        Thread t;
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            t = applier;
+        } finally {
+            lock.unlock();
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    /**
+     * Publica a inserção de um par chave/valor. Bloqueia enquanto a fila
+     * estiver cheia.
+     *
+     * @param key chave não nula
+     * @param value
+     * @throws InterruptedException se for interrompido esperando espaço
+     */
+    public void put(Key key, Value value) throws InterruptedException {
+        publish(new Op<>(key, value, false));
+    }
+
+    /**
+     * Publica a remoção de uma chave. Bloqueia enquanto a fila estiver cheia.
+     *
+     * @param key chave não nula
+     * @throws InterruptedException se for interrompido esperando espaço
+     */
+    public void remove(Key key) throws InterruptedException {
+        publish(new Op<Key, Value>(key, null, true));
+    }
+
+    /**
+     * Espera até que todas as operações publicadas antes desta chamada
+     * estejam aplicadas na árvore (read-your-writes).
+     *
+     * @throws InterruptedException se for interrompido esperando
+     * @throws IllegalStateException se o pipeline parou antes de aplicar tudo
+     */
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            long target = publishedCount;
+            // Depois de stop() a thread aplicadora ainda esvazia a fila, então
+            // só desiste se ela não existe ou já terminou
+            while (appliedCount < target) {
+                if (applier == null || exited) {
+                    throw stopped();
+                }
+                applied.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executa uma leitura na árvore sem concorrer com a thread aplicadora.
+     * Para enxergar as próprias escritas, chame flush() antes.
+     *
+     * @param reader função que consulta a árvore
+     * @return o resultado da função
+     */
+    public <R> R read(Function<SplayTree<Key, Value>, R> reader) {
+        treeLock.lock();
+        try {
+            return reader.apply(tree);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de operações esperando na fila.
+     *
+     * @return profundidade da fila
+     */
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return fila.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de operações retiradas da fila no último lote.
+     *
+     * @return tamanho do último lote
+     */
+    public int lastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Retorna o número de lotes aplicados.
+     *
+     * @return número de lotes
+     */
+    public long batches() {
+        return batches;
+    }
+
+    /**
+     * Retorna quantas operações foram descartadas por terem sido
+     * sobrescritas por uma operação posterior na mesma chave e no mesmo lote.
+     *
+     * @return número de operações coalescidas
+     */
+    public long coalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Retorna o tempo, em nanossegundos, gasto aplicando o último lote.
+     *
+     * @return latência do último lote
+     */
+    public long lastApplyNanos() {
+        return lastApplyNanos;
+    }
+
+    /**
+     * Retorna o maior tempo, em nanossegundos, gasto aplicando um lote.
+     *
+     * @return maior latência observada
+     */
+    public long maxApplyNanos() {
+        return maxApplyNanos;
+    }
+
+    /**
+     * Retorna o tempo médio, em nanossegundos, gasto aplicando um lote.
+     *
+     * @return latência média
+     */
+    public long averageApplyNanos() {
+        long b = batches;
+        return b == 0 ? 0 : totalApplyNanos / b;
+    }
+
+    private void publish(Op<Key, Value> op) throws InterruptedException {
+        if (op.key == null) {
+            throw new IllegalArgumentException("key não pode ser null");
+        }
+        lock.lock();
+        try {
+            while (running && fila.size() >= capacity) {
+                notFull.await();
+            }
+            if (!running) {
+                throw stopped();
+            }
+            fila.enqueue(op);
+            publishedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Exceção lançada a quem usa o pipeline depois que ele parou.
+    // Deve ser chamado com 'lock' adquirido.
+    private IllegalStateException stopped() {
+        if (failure != null) {
+            return new IllegalStateException("Pipeline parado por erro ao aplicar um lote", failure);
+        }
+        return new IllegalStateException("Pipeline parado");
+    }
+
+    // Laço da thread aplicadora
+    private void loop() {
+        Throwable error = null;
+        try {
+            applyAll();
+        } catch (RuntimeException | Error e) {
+            error = e;
+        } finally {
+            // Sem a thread aplicadora nada mais será aplicado: para o
+            // pipeline e acorda quem espera em flush() ou publish()
+            lock.lock();
+            try {
+                failure = error;
+                exited = true;
+                running = false;
+                applied.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Retira lotes da fila e os aplica até o pipeline parar
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void applyAll() {
+        Op<Key, Value>[] batch = (Op<Key, Value>[]) new Op[maxBatch];
+        while (true) {
+            int n = 0;
+            lock.lock();
+            try {
+                while (running && fila.isEmpty()) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (fila.isEmpty()) {
+                    return; // Parado e sem nada pendente
+                }
+                while (n < maxBatch && !fila.isEmpty()) {
+                    batch[n++] = fila.dequeue();
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            apply(batch, n);
+
+            lock.lock();
+            try {
+                appliedCount += n;
+                applied.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Ordena o lote por chave e aplica só a última operação de cada chave
+    private void apply(Op<Key, Value>[] batch, int n) {
+        long t0 = System.nanoTime();
+
+        // A ordenação é estável: para chaves iguais, a ordem de publicação
+        // é mantida e a última operação do grupo é a que vale.
+        Arrays.sort(batch, 0, n, (a, b) -> a.key.compareTo(b.key));
+
+        int skipped = 0;
+        treeLock.lock();
+        try {
+            for (int i = 0; i < n; i++) {
+                Op<Key, Value> op = batch[i];
+                if (i + 1 < n && op.key.compareTo(batch[i + 1].key) == 0) {
+                    skipped++;
+                    continue; // Sobrescrita por uma operação posterior
+                }
+                if (op.remove) tree.remove(op.key);
+                else tree.put(op.key, op.value);
+            }
+        } finally {
+            treeLock.unlock();
+        }
+        Arrays.fill(batch, 0, n, null);
+
+        long elapsed = System.nanoTime() - t0;
+        lastBatchSize = n;
+        coalesced += skipped;
+        batches++;
+        lastApplyNanos = elapsed;
+        totalApplyNanos += elapsed;
+        if (elapsed > maxApplyNanos) maxApplyNanos = elapsed;
+    }
+}
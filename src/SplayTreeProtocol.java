@@ -0,0 +1,67 @@
+/**
+ * Protocolo binário usado entre SplayTreeServer e SplayTreeClient.
+ *
+ * Todos os inteiros são de 4 bytes, big-endian.
+ *
+ * Requisições:
+ *   PUT    [op][key][value]
+ *   GET    [op][key]
+ *   REMOVE [op][key]
+ *   RANGE  [op][lo][hi]
+ *
+ * Respostas (na mesma ordem das requisições):
+ *   PUT    [status]
+ *   GET    [status][value]          (value = 0 se status for NOT_FOUND)
+ *   REMOVE [status]
+ *   RANGE  [status][count] seguido de count pares [key][value]
+ *
+ * Uma resposta de RANGE traz no máximo MAX_RANGE_PAIRS pares. Se o
+ * intervalo tiver mais chaves, o status é PARTIAL e o cliente pede o
+ * restante a partir da chave seguinte à última recebida.
+ *
+ * O cliente pode enviar várias requisições seguidas sem esperar as
+ * respostas (pipelining); o servidor devolve as respostas em lote.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public final class SplayTreeProtocol {
+
+    // === Operações ===
+    public static final byte OP_PUT = 1;
+    public static final byte OP_GET = 2;
+    public static final byte OP_REMOVE = 3;
+    public static final byte OP_RANGE = 4;
+
+    // === Status das respostas ===
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_PARTIAL = 2;
+
+    // Máximo de pares em uma resposta de RANGE (32 KB de pares)
+    public static final int MAX_RANGE_PAIRS = 4096;
+
+    // Tamanho máximo de uma requisição (op + dois inteiros)
+    public static final int MAX_REQUEST_SIZE = 9;
+
+    private SplayTreeProtocol() {
+    }
+
+    /**
+     * Retorna o tamanho em bytes da requisição com a operação indicada.
+     *
+     * @param op código da operação
+     * @return tamanho da requisição ou -1 se a operação for desconhecida
+     */
+    public static int requestSize(byte op) {
+        switch (op) {
+            case OP_PUT:
+            case OP_RANGE:
+                return 9;
+            case OP_GET:
+            case OP_REMOVE:
+                return 5;
+            default:
+                return -1;
+        }
+    }
+}
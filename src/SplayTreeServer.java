@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Servidor local não bloqueante que expõe uma SplayTree de inteiros
+ * usando o protocolo definido em SplayTreeProtocol.
+ *
+ * Todo o acesso à árvore é feito por uma única thread (a thread do
+ * Selector), por isso a árvore não precisa de nenhum tipo de trava.
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class SplayTreeServer {
+
+    // Tamanho inicial dos buffers de cada conexão
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Com mais que isto de resposta pendente, o servidor para de
+    // interpretar requisições da conexão até o cliente ler a saída. Como
+    // uma resposta tem no máximo 5 + 8 * MAX_RANGE_PAIRS bytes, o buffer de
+    // saída fica limitado a poucas vezes este valor.
+    private static final int OUT_LIMIT = BUFFER_SIZE;
+
+    private final SplayTree<Integer, Integer> tree;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private Thread owner;
+    private volatile boolean running;
+
+    // === Estado de cada conexão ===
+    private static class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        public Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // Garante espaço para mais 'bytes' bytes no buffer de saída
+        private void ensureOut(int bytes) {
+            if (out.remaining() < bytes) {
+                int capacity = out.capacity();
+                while (capacity - out.position() < bytes) {
+                    capacity *= 2;
+                }
+                ByteBuffer bigger = ByteBuffer.allocateDirect(capacity);
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+        }
+    }
+
+    /**
+     * Cria o servidor escutando em localhost na porta indicada.
+     *
+     * @param tree árvore que será exposta pelo servidor
+     * @param port porta TCP, ou 0 para uma porta livre qualquer
+     * @throws IOException se não for possível abrir o socket
+     */
+    public SplayTreeServer(SplayTree<Integer, Integer> tree, int port) throws IOException {
+        this.tree = tree;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Retorna a porta em que o servidor está escutando.
+     *
+     * @return porta local
+     * @throws IOException se o socket estiver fechado
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Inicia a thread dona da árvore, que atende todas as conexões.
+     */
+    public synchronized void start() {
+        if (owner != null) {
+            throw new IllegalStateException("Servidor já iniciado");
+        }
+        running = true;
+        owner = new Thread(this::loop, "splaytree-server");
+        owner.start();
+    }
+
+    /**
+     * Para o servidor e fecha todas as conexões.
+     *
+     * @throws InterruptedException se for interrompido esperando a thread
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        if (owner != null) {
+            owner.join();
+        }
+    }
+
+    // Laço principal da thread dona da árvore
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey sk = it.next();
+                    it.remove();
+                    try {
+                        if (!sk.isValid()) continue;
+                        if (sk.isAcceptable()) accept();
+                        else if (sk.isReadable()) read(sk);
+                        else if (sk.isWritable()) serve(sk);
+                    } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                        // Uma falha ao atender uma conexão (inclusive falta de
+                        // memória direta para os buffers) derruba só ela
+                        close(sk);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (SelectionKey sk : selector.keys()) {
+                close(sk);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Ignora: o servidor já está sendo encerrado
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch = serverChannel.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        ch.register(selector, SelectionKey.OP_READ, new Connection(ch));
+    }
+
+    private void read(SelectionKey sk) throws IOException {
+        Connection c = (Connection) sk.attachment();
+        int n = c.channel.read(c.in);
+        if (n < 0) {
+            close(sk);
+            return;
+        }
+        serve(sk);
+    }
+
+    // Alterna entre interpretar requisições e enviar respostas. Enquanto
+    // houver saída pendente, a conexão só espera poder escrever: o cliente
+    // que não lê as respostas deixa de ser lido (backpressure), e as
+    // requisições restantes ficam guardadas em 'in'.
+    private void serve(SelectionKey sk) throws IOException {
+        Connection c = (Connection) sk.attachment();
+        while (true) {
+            boolean more = parse(sk, c);
+            if (!sk.isValid()) return;
+
+            // Responde o lote inteiro de uma só vez
+            c.out.flip();
+            c.channel.write(c.out);
+            c.out.compact();
+
+            if (c.out.position() > 0) {
+                sk.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (!more) {
+                sk.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+        }
+    }
+
+    // Executa as requisições completas de 'in' até a saída passar de
+    // OUT_LIMIT; retorna true se parou por causa do limite
+    private boolean parse(SelectionKey sk, Connection c) {
+        boolean full = false;
+        c.in.flip();
+        while (c.in.hasRemaining()) {
+            if (c.out.position() >= OUT_LIMIT) {
+                full = true;
+                break;
+            }
+            byte op = c.in.get(c.in.position());
+            int size = SplayTreeProtocol.requestSize(op);
+            if (size < 0) {
+                close(sk); // Operação desconhecida
+                return false;
+            }
+            if (c.in.remaining() < size) break; // Requisição incompleta
+            c.in.get();
+            execute(op, c);
+        }
+        c.in.compact();
+        return full;
+    }
+
+    // Executa uma requisição e escreve a resposta no buffer de saída
+    private void execute(byte op, Connection c) {
+        int key = c.in.getInt();
+        switch (op) {
+            case SplayTreeProtocol.OP_PUT:
+                tree.put(key, c.in.getInt());
+                c.ensureOut(1);
+                c.out.put(SplayTreeProtocol.STATUS_OK);
+                break;
+            case SplayTreeProtocol.OP_GET:
+                c.ensureOut(5);
+                Integer value = tree.get(key);
+                if (value != null) {
+                    c.out.put(SplayTreeProtocol.STATUS_OK);
+                    c.out.putInt(value);
+                } else {
+                    c.out.put(SplayTreeProtocol.STATUS_NOT_FOUND);
+                    c.out.putInt(0);
+                }
+                break;
+            case SplayTreeProtocol.OP_REMOVE:
+                tree.remove(key);
+                c.ensureOut(1);
+                c.out.put(SplayTreeProtocol.STATUS_OK);
+                break;
+            case SplayTreeProtocol.OP_RANGE:
+                int hi = c.in.getInt();
+                int max = SplayTreeProtocol.MAX_RANGE_PAIRS;
+                c.ensureOut(5 + 8 * max);
+                int statusPos = c.out.position();
+                c.out.put(SplayTreeProtocol.STATUS_OK);
+                c.out.putInt(0);
+                // Pede um par a mais só para saber se o intervalo continua
+                int found = tree.range(key, hi, max + 1, (k, v) -> {
+                    if (c.out.position() < statusPos + 5 + 8 * max) {
+                        c.out.putInt(k);
+                        c.out.putInt(v);
+                    }
+                });
+                if (found > max) {
+                    c.out.put(statusPos, SplayTreeProtocol.STATUS_PARTIAL);
+                }
+                c.out.putInt(statusPos + 1, Math.min(found, max));
+                break;
+        }
+    }
+
+    private void close(SelectionKey sk) {
+        sk.cancel();
+        try {
+            sk.channel().close();
+        } catch (IOException e) {
+            // Ignora: a conexão já está sendo descartada
+        }
+    }
+}
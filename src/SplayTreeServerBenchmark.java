@@ -0,0 +1,78 @@
+import java.util.Random;
+
+/**
+ * Mede a vazão do SplayTreeServer via loopback, com e sem pipelining.
+ *
+ * Uso: java SplayTreeServerBenchmark [operacoes] [tamanhoDoLote]
+ *
+ * @author Adriane, Matheus e Pércio
+ */
+public class SplayTreeServerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int batch = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        SplayTreeServer server = new SplayTreeServer(new SplayTree<Integer, Integer>(), 0);
+        server.start();
+
+        Random rnd = new Random(42);
+        int[] keys = new int[ops];
+        int[] values = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            keys[i] = rnd.nextInt(ops);
+            values[i] = i;
+        }
+
+        try (SplayTreeClient client = new SplayTreeClient(server.getPort())) {
+            // == Carga: put em lotes ==
+            long t0 = System.nanoTime();
+            for (int start = 0; start < ops; start += batch) {
+                int len = Math.min(batch, ops - start);
+                int[] k = new int[len];
+                int[] v = new int[len];
+                System.arraycopy(keys, start, k, 0, len);
+                System.arraycopy(values, start, v, 0, len);
+                client.putAll(k, v);
+            }
+            report("put com lotes de " + batch, ops, System.nanoTime() - t0);
+
+            // == Mesmos gets, na árvore já carregada, com e sem pipelining ==
+            int single = Math.min(ops, 20000);
+            t0 = System.nanoTime();
+            for (int i = 0; i < single; i++) {
+                client.get(keys[i]);
+            }
+            report("get sem pipelining", single, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (int start = 0; start < single; start += batch) {
+                int len = Math.min(batch, single - start);
+                int[] k = new int[len];
+                System.arraycopy(keys, start, k, 0, len);
+                client.getAll(k);
+            }
+            report("get com lotes de " + batch, single, System.nanoTime() - t0);
+
+            // == Intervalo com a árvore inteira, recebido em partes ==
+            int[] found = {0};
+            t0 = System.nanoTime();
+            client.range(Integer.MIN_VALUE, Integer.MAX_VALUE, (k, v) -> found[0]++);
+            report("range da árvore inteira", found[0], System.nanoTime() - t0);
+
+            // == Verificação: intervalo acima da maior chave vem vazio ==
+            found[0] = 0;
+            client.range(ops, Integer.MAX_VALUE, (k, v) -> found[0]++);
+            if (found[0] != 0 || client.get(keys[0]) == null) {
+                throw new IllegalStateException("range acima da maior chave falhou");
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void report(String name, int ops, long nanos) {
+        System.out.printf("%-28s %10d ops  %8.1f ms  %12.0f ops/s%n",
+                name, ops, nanos / 1e6, ops / (nanos / 1e9));
+    }
+}